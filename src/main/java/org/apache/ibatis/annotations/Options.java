@@ -120,6 +120,15 @@ public @interface Options {
      */
     String resultSets() default "";
 
+    /**
+     * Returns whether the rows are grouped by the id of the top level result objects, so that nested result maps can
+     * release each object as soon as the next one starts.
+     *
+     * @return {@code true} if the result is ordered
+     * @since 3.5.6
+     */
+    boolean resultOrdered() default false;
+
     /**
      * @return A database id that correspond this options
      * @since 3.5.5
@@ -18,6 +18,12 @@ package org.apache.ibatis.binding;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.defaults.DefaultCursorPublisher;
+import org.apache.ibatis.executor.result.ColumnarResult;
+import org.apache.ibatis.executor.result.IntList;
+import org.apache.ibatis.executor.result.LongList;
+import org.apache.ibatis.executor.result.PrimitiveListResultHandler;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -105,6 +111,10 @@ public class MapperMethod {
                 } else if (method.returnsCursor()) {
                     // 要是方法返回的是游标Cursor类型, 调用executeForCursor()方法
                     result = executeForCursor(sqlSession, args);
+                } else if (method.returnsCursorPublisher()) {
+                    result = executeForCursorPublisher(sqlSession, args);
+                } else if (method.returnsColumnarResult()) {
+                    result = executeForColumnarResult(sqlSession, args);
                 } else {
                     // 其它情况下, 例如返回的单体Bean, 那么久直接调用SqlSession.selectOne()方法
                     Object param = method.convertArgsToSqlCommandParam(args);
@@ -165,6 +175,9 @@ public class MapperMethod {
     private <E> Object executeForMany(SqlSession sqlSession, Object[] args) {
         List<E> result;
         Object param = method.convertArgsToSqlCommandParam(args);
+        if (method.getReturnType() == IntList.class || method.getReturnType() == LongList.class) {
+            return executeForPrimitiveList(sqlSession, param, args);
+        }
         if (method.hasRowBounds()) {
             RowBounds rowBounds = method.extractRowBounds(args);
             result = sqlSession.selectList(command.getName(), param, rowBounds);
@@ -182,6 +195,48 @@ public class MapperMethod {
         return result;
     }
 
+    private Object executeForPrimitiveList(SqlSession sqlSession, Object param, Object[] args) {
+        final Object result;
+        final PrimitiveListResultHandler resultHandler;
+        if (method.getReturnType() == IntList.class) {
+            IntList list = new IntList();
+            resultHandler = new PrimitiveListResultHandler(list);
+            result = list;
+        } else {
+            LongList list = new LongList();
+            resultHandler = new PrimitiveListResultHandler(list);
+            result = list;
+        }
+        if (method.hasRowBounds()) {
+            RowBounds rowBounds = method.extractRowBounds(args);
+            sqlSession.select(command.getName(), param, rowBounds, resultHandler);
+        } else {
+            sqlSession.select(command.getName(), param, resultHandler);
+        }
+        return result;
+    }
+
+    private <T> CursorPublisher<T> executeForCursorPublisher(SqlSession sqlSession, Object[] args) {
+        MappedStatement ms = sqlSession.getConfiguration().getMappedStatement(command.getName());
+        Integer fetchSize = ms.getFetchSize();
+        if (fetchSize == null) {
+            fetchSize = sqlSession.getConfiguration().getDefaultFetchSize();
+        }
+        // 按语句的 fetchSize 预取; 未配置或为负数 (如 MySQL 的流式读取) 时保留语句本身的设置
+        int prefetch = fetchSize != null && fetchSize > 0 ? fetchSize : 0;
+        Cursor<T> cursor = executeForCursor(sqlSession, args);
+        return new DefaultCursorPublisher<>(cursor, prefetch);
+    }
+
+    private ColumnarResult executeForColumnarResult(SqlSession sqlSession, Object[] args) {
+        Object param = method.convertArgsToSqlCommandParam(args);
+        if (method.hasRowBounds()) {
+            RowBounds rowBounds = method.extractRowBounds(args);
+            return sqlSession.selectColumnar(command.getName(), param, rowBounds);
+        }
+        return sqlSession.selectColumnar(command.getName(), param);
+    }
+
     private <T> Cursor<T> executeForCursor(SqlSession sqlSession, Object[] args) {
         Cursor<T> result;
         Object param = method.convertArgsToSqlCommandParam(args);
@@ -309,6 +364,9 @@ public class MapperMethod {
         private final boolean returnsVoid;
         // 方法返回值是否是：org.apache.ibatis.cursor.Cursor类型
         private final boolean returnsCursor;
+        private final boolean returnsCursorPublisher;
+        // 方法返回值是否是：org.apache.ibatis.executor.result.ColumnarResult类型
+        private final boolean returnsColumnarResult;
         // 方法返回值是否是：java.util.Optional类型
         private final boolean returnsOptional;
         // 方法返回值的类型
@@ -335,6 +393,8 @@ public class MapperMethod {
             this.returnsVoid = void.class.equals(this.returnType);
             this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
             this.returnsCursor = Cursor.class.equals(this.returnType);
+            this.returnsCursorPublisher = CursorPublisher.class.equals(this.returnType);
+            this.returnsColumnarResult = ColumnarResult.class.equals(this.returnType);
             this.returnsOptional = Optional.class.equals(this.returnType);
             // 获取 org.apache.ibatis.annotations.MapKey 指定的值, 可能为null
             this.mapKey = getMapKey(method);
@@ -384,6 +444,26 @@ public class MapperMethod {
             return returnsCursor;
         }
 
+        /**
+         * Return whether return type is {@code org.apache.ibatis.executor.result.ColumnarResult}.
+         *
+         * @return return {@code true}, if return type is {@code org.apache.ibatis.executor.result.ColumnarResult}
+         * @since 3.5.6
+         */
+        public boolean returnsColumnarResult() {
+            return returnsColumnarResult;
+        }
+
+        /**
+         * return whether return type is {@link CursorPublisher}.
+         *
+         * @return return {@code true}, if return type is {@link CursorPublisher}
+         * @since 3.5.6
+         */
+        public boolean returnsCursorPublisher() {
+            return returnsCursorPublisher;
+        }
+
         /**
          * return whether return type is {@code java.util.Optional}.
          *
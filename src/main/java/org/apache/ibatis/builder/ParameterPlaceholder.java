@@ -0,0 +1,95 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A parsed {@code #{...}} placeholder and the parameter mappings resolved from it.
+ * <p>
+ * The mapping of a placeholder depends only on its text and on the type its property is resolved against: the
+ * parameter type, or the type of an additional parameter (a foreach item or a bind variable) with the same name.
+ * Placeholders are shared through the {@link org.apache.ibatis.session.Configuration} by all statements using the same
+ * text, so repeated executions of dynamic statements reuse the mappings built by the first one. All methods are
+ * thread-safe.
+ *
+ * @since 3.5.6
+ */
+public class ParameterPlaceholder {
+
+    private final String content;
+    private final Map<String, String> properties;
+    private final Map<Class<?>, ParameterMapping> parameterTypeMappings = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ParameterMapping> additionalParameterTypeMappings = new ConcurrentHashMap<>();
+
+    public ParameterPlaceholder(String content, Map<String, String> properties) {
+        this.content = content;
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the properties parsed from the placeholder, as built by {@link ParameterExpression}.
+     *
+     * @return the parsed properties
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Returns the mapping of this placeholder whose property is resolved against the parameter type.
+     *
+     * @param parameterType
+     *          the parameter type
+     * @param builder
+     *          builds the mapping when none is cached for the parameter type
+     * @return the mapping
+     */
+    public ParameterMapping getParameterMapping(Class<?> parameterType, Function<Class<?>, ParameterMapping> builder) {
+        return getMapping(parameterTypeMappings, parameterType, builder);
+    }
+
+    /**
+     * Returns the mapping of this placeholder whose property is an additional parameter of the given type.
+     *
+     * @param propertyType
+     *          the type of the additional parameter
+     * @param builder
+     *          builds the mapping when none is cached for the property type
+     * @return the mapping
+     */
+    public ParameterMapping getAdditionalParameterMapping(Class<?> propertyType, Function<Class<?>, ParameterMapping> builder) {
+        return getMapping(additionalParameterTypeMappings, propertyType, builder);
+    }
+
+    private static ParameterMapping getMapping(Map<Class<?>, ParameterMapping> mappings, Class<?> type, Function<Class<?>, ParameterMapping> builder) {
+        ParameterMapping mapping = mappings.get(type);
+        if (mapping == null) {
+            mapping = mappings.computeIfAbsent(type, builder);
+        }
+        return mapping;
+    }
+
+}
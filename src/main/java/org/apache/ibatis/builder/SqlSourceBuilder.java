@@ -21,13 +21,13 @@ import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.parsing.TokenHandler;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 
 /**
  * @author Clinton Begin
@@ -40,20 +40,78 @@ public class SqlSourceBuilder extends BaseBuilder {
         super(configuration);
     }
 
+    /**
+     * Removes leading and trailing whitespaces and replaces every run of inner whitespaces with a single space, in
+     * one pass over the SQL. Whitespaces are the delimiters of {@link java.util.StringTokenizer}: space, tab, line
+     * feed, carriage return and form feed.
+     *
+     * @param original the SQL
+     * @return the SQL without extra whitespaces
+     */
     public static String removeExtraWhitespaces(String original) {
-        StringTokenizer tokenizer = new StringTokenizer(original);
-        StringBuilder builder = new StringBuilder();
-        boolean hasMoreTokens = tokenizer.hasMoreTokens();
-        while (hasMoreTokens) {
-            builder.append(tokenizer.nextToken());
-            hasMoreTokens = tokenizer.hasMoreTokens();
-            if (hasMoreTokens) {
-                builder.append(' ');
+        int end = original.length();
+        while (end > 0 && isWhitespace(original.charAt(end - 1))) {
+            end--;
+        }
+        int start = 0;
+        while (start < end && isWhitespace(original.charAt(start))) {
+            start++;
+        }
+        return collapseWhitespaces(original, start, end);
+    }
+
+    /**
+     * Replaces every run of whitespaces with a single space, keeping a space at either end if there was any. Unlike
+     * {@link #removeExtraWhitespaces(String)} this can be applied to a fragment of a SQL without changing the result of
+     * removing the extra whitespaces from the whole SQL later.
+     *
+     * @param fragment the SQL fragment
+     * @return the fragment with its whitespaces collapsed
+     * @since 3.5.6
+     */
+    public static String collapseWhitespaces(String fragment) {
+        return collapseWhitespaces(fragment, 0, fragment.length());
+    }
+
+    private static String collapseWhitespaces(String sql, int start, int end) {
+        // 先找到第一处需要改写的空白, 之前的部分原样复制; 没有则无需新建字符串
+        int i = start;
+        while (i < end && !isExtraWhitespace(sql, i, end)) {
+            i++;
+        }
+        if (i == end) {
+            return start == 0 && end == sql.length() ? sql : sql.substring(start, end);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        builder.append(sql, start, i);
+        // 逐段复制非空白字符, 每段空白只写一个空格
+        while (i < end) {
+            while (i < end && isWhitespace(sql.charAt(i))) {
+                i++;
             }
+            builder.append(' ');
+            int wordStart = i;
+            while (i < end && !isWhitespace(sql.charAt(i))) {
+                i++;
+            }
+            builder.append(sql, wordStart, i);
         }
         return builder.toString();
     }
 
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    // 非空格的空白字符, 或者后面紧跟空白字符的空格
+    private static boolean isExtraWhitespace(String sql, int index, int end) {
+        char c = sql.charAt(index);
+        if (c == ' ') {
+            return index + 1 < end && isWhitespace(sql.charAt(index + 1));
+        }
+        return isWhitespace(c);
+    }
+
     public SqlSource parse(String originalSql, Class<?> parameterType, Map<String, Object> additionalParameters) {
         ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
         GenericTokenParser parser = new GenericTokenParser("#{", "}", handler);
@@ -66,6 +124,24 @@ public class SqlSourceBuilder extends BaseBuilder {
         return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
     }
 
+    /**
+     * Builds the parameter mappings of placeholders whose contents were already extracted from the SQL, exactly as
+     * {@link #parse(String, Class, Map)} builds them while parsing.
+     *
+     * @param parameterContents    the contents of the {@code #{...}} placeholders, in order
+     * @param parameterType        the parameter type
+     * @param additionalParameters the additional parameters
+     * @return the parameter mappings
+     * @since 3.5.6
+     */
+    public List<ParameterMapping> buildParameterMappings(List<String> parameterContents, Class<?> parameterType, Map<String, Object> additionalParameters) {
+        ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
+        for (String content : parameterContents) {
+            handler.handleToken(content);
+        }
+        return handler.getParameterMappings();
+    }
+
     private static class ParameterMappingTokenHandler extends BaseBuilder implements TokenHandler {
 
         private List<ParameterMapping> parameterMappings = new ArrayList<>();
@@ -89,26 +165,103 @@ public class SqlSourceBuilder extends BaseBuilder {
         }
 
         private ParameterMapping buildParameterMapping(String content) {
-            Map<String, String> propertiesMap = parseParameterMapping(content);
+            if (configuration.getParameterMappingCacheSize() <= 0 || parameterType == null) {
+                Map<String, String> propertiesMap = parseParameterMapping(content);
+                return buildParameterMapping(content, propertiesMap, resolvePropertyType(propertiesMap));
+            }
+            // foreach 展开后的 #{__frch_item_N...} 只有序号 N 不同, 去掉序号后共用一个缓存项
+            int indexEnd = itemIndexEnd(content);
+            int indexStart = indexEnd < 0 ? -1 : itemIndexStart(content, indexEnd);
+            String key = indexStart < 0 ? content : content.substring(0, indexStart) + content.substring(indexEnd);
+            // 同样的 #{} 文本按同样的类型解析, 得到的参数映射也相同
+            ParameterPlaceholder placeholder = configuration.getParameterPlaceholder(key);
+            if (placeholder == null) {
+                Map<String, String> propertiesMap = parseParameterMapping(content);
+                if (indexStart >= 0) {
+                    propertiesMap.put("property", key.substring(0, propertiesMap.get("property").length() - (indexEnd - indexStart)));
+                }
+                placeholder = new ParameterPlaceholder(key, propertiesMap);
+                configuration.addParameterPlaceholder(placeholder);
+            }
+            Map<String, String> propertiesMap = placeholder.getProperties();
+            String property = propertiesMap.get("property");
+            if (indexStart < 0) {
+                if (metaParameters.hasGetter(property)) {
+                    return placeholder.getAdditionalParameterMapping(metaParameters.getGetterType(property),
+                        type -> buildParameterMapping(content, propertiesMap, type));
+                }
+                return placeholder.getParameterMapping(parameterType,
+                    type -> buildParameterMapping(content, propertiesMap, resolvePropertyType(propertiesMap)));
+            }
+            String itemProperty = property.substring(0, indexStart) + content.substring(indexStart, indexEnd) + property.substring(indexStart);
+            if (!metaParameters.hasGetter(itemProperty)) {
+                Map<String, String> itemPropertiesMap = parseParameterMapping(content);
+                return buildParameterMapping(content, itemPropertiesMap, resolvePropertyType(itemPropertiesMap));
+            }
+            // 缓存的是去掉序号的映射, 换上本次的参数名即可, 不用再查找类型处理器
+            ParameterMapping mapping = placeholder.getAdditionalParameterMapping(metaParameters.getGetterType(itemProperty),
+                type -> buildParameterMapping(content, propertiesMap, type));
+            return new ParameterMapping.Builder(configuration, itemProperty, mapping.getTypeHandler())
+                .javaType(mapping.getJavaType())
+                .jdbcType(mapping.getJdbcType())
+                .mode(mapping.getMode())
+                .numericScale(mapping.getNumericScale())
+                .resultMapId(mapping.getResultMapId())
+                .jdbcTypeName(mapping.getJdbcTypeName())
+                .compilePropertyPath(false)
+                .build();
+        }
+
+        // #{__frch_item_N...} 中第一个名字的结束位置, 不是 foreach 展开的参数时返回 -1
+        private static int itemIndexEnd(String content) {
+            if (!content.startsWith(ForEachSqlNode.ITEM_PREFIX)) {
+                return -1;
+            }
+            int end = ForEachSqlNode.ITEM_PREFIX.length();
+            while (end < content.length()) {
+                char c = content.charAt(end);
+                if (c == '.' || c == ',' || c == ':' || Character.isWhitespace(c)) {
+                    break;
+                }
+                end++;
+            }
+            return end;
+        }
+
+        // 名字末尾 _N 中序号 N 的起始位置, 没有序号时返回 -1
+        private static int itemIndexStart(String content, int end) {
+            int start = end;
+            while (start > ForEachSqlNode.ITEM_PREFIX.length() && Character.isDigit(content.charAt(start - 1))) {
+                start--;
+            }
+            return start < end && content.charAt(start - 1) == '_' ? start : -1;
+        }
+
+        private Class<?> resolvePropertyType(Map<String, String> propertiesMap) {
             String property = propertiesMap.get("property");
-            Class<?> propertyType;
             if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
-                propertyType = metaParameters.getGetterType(property);
+                return metaParameters.getGetterType(property);
             } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
-                propertyType = parameterType;
+                return parameterType;
             } else if (JdbcType.CURSOR.name().equals(propertiesMap.get("jdbcType"))) {
-                propertyType = java.sql.ResultSet.class;
+                return java.sql.ResultSet.class;
             } else if (property == null || Map.class.isAssignableFrom(parameterType)) {
-                propertyType = Object.class;
+                return Object.class;
             } else {
                 MetaClass metaClass = MetaClass.forClass(parameterType, configuration.getReflectorFactory());
                 if (metaClass.hasGetter(property)) {
-                    propertyType = metaClass.getGetterType(property);
+                    return metaClass.getGetterType(property);
                 } else {
-                    propertyType = Object.class;
+                    return Object.class;
                 }
             }
+        }
+
+        private ParameterMapping buildParameterMapping(String content, Map<String, String> propertiesMap, Class<?> propertyType) {
+            String property = propertiesMap.get("property");
             ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
+            // foreach 生成的 __frch_ 参数名每次执行都不同, 编译了也不会复用
+            builder.compilePropertyPath(property == null || !property.startsWith(ForEachSqlNode.ITEM_PREFIX));
             Class<?> javaType = propertyType;
             String typeHandlerAlias = null;
             for (Map.Entry<String, String> entry : propertiesMap.entrySet()) {
@@ -25,6 +25,9 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.executor.result.IntList;
+import org.apache.ibatis.executor.result.LongList;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -301,6 +304,7 @@ public class MapperAnnotationBuilder {
             boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
             boolean flushCache = !isSelect;
             boolean useCache = isSelect;
+            boolean resultOrdered = false;
             if (options != null) {
                 if (FlushCachePolicy.TRUE.equals(options.flushCache())) {
                     flushCache = true;
@@ -308,6 +312,7 @@ public class MapperAnnotationBuilder {
                     flushCache = false;
                 }
                 useCache = options.useCache();
+                resultOrdered = options.resultOrdered();
                 fetchSize = options.fetchSize() > -1 || options.fetchSize() == Integer.MIN_VALUE ? options.fetchSize() : null; //issue #348
                 timeout = options.timeout() > -1 ? options.timeout() : null;
                 statementType = options.statementType();
@@ -341,8 +346,8 @@ public class MapperAnnotationBuilder {
                     resultSetType,
                     flushCache,
                     useCache,
-                    // TODO gcode issue #577
-                    false,
+                    // gcode issue #577
+                    resultOrdered,
                     keyGenerator,
                     keyProperty,
                     keyColumn,
@@ -385,6 +390,10 @@ public class MapperAnnotationBuilder {
             returnType = (Class<?>) resolvedReturnType;
             if (returnType.isArray()) {
                 returnType = returnType.getComponentType();
+            } else if (IntList.class.equals(returnType)) {
+                returnType = Integer.class;
+            } else if (LongList.class.equals(returnType)) {
+                returnType = Long.class;
             }
             // gcode issue #508
             if (void.class.equals(returnType)) {
@@ -396,7 +405,8 @@ public class MapperAnnotationBuilder {
         } else if (resolvedReturnType instanceof ParameterizedType) {
             ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
             Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+                    || CursorPublisher.class.isAssignableFrom(rawType)) {
                 Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
                 if (actualTypeArguments != null && actualTypeArguments.length == 1) {
                     Type returnTypeParameter = actualTypeArguments[0];
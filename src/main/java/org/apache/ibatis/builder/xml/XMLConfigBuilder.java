@@ -23,6 +23,7 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.parsing.XNode;
@@ -33,6 +34,7 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
@@ -121,6 +123,7 @@ public class XMLConfigBuilder extends BaseBuilder {
             objectWrapperFactoryElement(root.evalNode("objectWrapperFactory"));
             reflectorFactoryElement(root.evalNode("reflectorFactory"));
             settingsElement(settings);
+            loadExpressionEngine(settings);
             // read it after objectFactory and objectWrapperFactory issue #631
             environmentsElement(root.evalNode("environments"));
             databaseIdProviderElement(root.evalNode("databaseIdProvider"));
@@ -128,11 +131,20 @@ public class XMLConfigBuilder extends BaseBuilder {
             typeHandlerElement(root.evalNode("typeHandlers"));
             // 解析mapper配置文件
             mapperElement(root.evalNode("mappers"));
+            reportFoldedStatements();
         } catch (Exception e) {
             throw new BuilderException("Error parsing SQL Mapper Configuration. Cause: " + e, e);
         }
     }
 
+    private void reportFoldedStatements() {
+        // 日志实现可能在 settings 中指定, 所以在这里才获取 Log
+        Log log = LogFactory.getLog(XMLConfigBuilder.class);
+        if (configuration.isFoldConstantSqlNodes() && log.isDebugEnabled()) {
+            log.debug("Folded " + configuration.getFoldedStatementCount() + " dynamic statement(s) into raw SQL sources.");
+        }
+    }
+
     private Properties settingsAsProperties(XNode context) {
         if (context == null) {
             return new Properties();
@@ -167,6 +179,20 @@ public class XMLConfigBuilder extends BaseBuilder {
         configuration.setLogImpl(logImpl);
     }
 
+    private void loadExpressionEngine(Properties props) throws Exception {
+        Class<? extends ExpressionEngine> engineType = resolveClass(props.getProperty("expressionEngine"));
+        if (engineType != null) {
+            // reflectorFactory 已在前面解析, 引擎若接受 ReflectorFactory 就用配置中的那个
+            ExpressionEngine engine;
+            try {
+                engine = engineType.getConstructor(ReflectorFactory.class).newInstance(configuration.getReflectorFactory());
+            } catch (NoSuchMethodException e) {
+                engine = engineType.getDeclaredConstructor().newInstance();
+            }
+            configuration.setExpressionEngine(engine);
+        }
+    }
+
     private void typeAliasesElement(XNode parent) {
         if (parent != null) {
             for (XNode child : parent.getChildren()) {
@@ -276,6 +302,15 @@ public class XMLConfigBuilder extends BaseBuilder {
         configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
         configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
         configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
+        configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+        configuration.setParallelResultMappingChunkSize(integerValueOf(props.getProperty("parallelResultMappingChunkSize"), null));
+        configuration.setUseCompiledRowMappers(booleanValueOf(props.getProperty("useCompiledRowMappers"), false));
+        configuration.setCacheResultSetLayouts(booleanValueOf(props.getProperty("cacheResultSetLayouts"), true));
+        configuration.setDetectResultOrdered(booleanValueOf(props.getProperty("detectResultOrdered"), false));
+        configuration.setUseCompiledDynamicSql(booleanValueOf(props.getProperty("useCompiledDynamicSql"), false));
+        configuration.setUseDynamicSqlShapeCache(booleanValueOf(props.getProperty("useDynamicSqlShapeCache"), false));
+        configuration.setFoldConstantSqlNodes(booleanValueOf(props.getProperty("foldConstantSqlNodes"), false));
+        configuration.setParameterMappingCacheSize(integerValueOf(props.getProperty("parameterMappingCacheSize"), 1024));
         configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
         configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
         configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
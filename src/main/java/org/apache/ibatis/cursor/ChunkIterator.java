@@ -0,0 +1,57 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Groups the items of an iterator in batches, refilling the same list for every batch.
+ *
+ * @param <T> the item type
+ * @see Cursor#chunks(int)
+ */
+class ChunkIterator<T> implements Iterator<List<T>> {
+
+    private final Iterator<T> items;
+    private final int size;
+    private final List<T> chunk;
+
+    ChunkIterator(Iterator<T> items, int size) {
+        this.items = items;
+        this.size = size;
+        this.chunk = new ArrayList<>(size);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return items.hasNext();
+    }
+
+    @Override
+    public List<T> next() {
+        if (!items.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        chunk.clear();
+        while (chunk.size() < size && items.hasNext()) {
+            chunk.add(items.next());
+        }
+        return chunk;
+    }
+}
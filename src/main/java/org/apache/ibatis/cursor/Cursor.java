@@ -16,6 +16,7 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.util.List;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -44,4 +45,23 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
      * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
      */
     int getCurrentIndex();
+
+    /**
+     * Returns the items of this cursor in batches of {@code size} items, the last batch may be smaller.
+     * <p>
+     * To avoid an allocation per batch the same list instance is refilled on every call to
+     * {@link java.util.Iterator#next()}: a batch is only valid until the next one is retrieved, copy it to keep it.
+     * Like {@link #iterator()}, the returned iterable can only be iterated once. Cursors reading from the database
+     * raise the fetch size of the result set to at least {@code size}.
+     *
+     * @param size the number of items per batch
+     * @return the batches of items
+     * @since 3.5.6
+     */
+    default Iterable<List<T>> chunks(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive but was " + size);
+        }
+        return () -> new ChunkIterator<>(iterator(), size);
+    }
 }
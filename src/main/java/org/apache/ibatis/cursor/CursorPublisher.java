@@ -0,0 +1,42 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * Push based view of a {@link Cursor} that emits items only as fast as they are requested.
+ * <p>
+ * The contract mirrors {@code java.util.concurrent.Flow.Publisher} (and Reactive Streams), so it can be adapted
+ * to either with a one line wrapper while MyBatis stays compatible with Java 8. A publisher supports a single
+ * subscriber; items are emitted on the thread that signals demand and the underlying cursor (and therefore
+ * its statement) is closed on completion, error or cancellation.
+ * <p>
+ * Mapper methods may declare {@code CursorPublisher<T>} as return type. As with {@link Cursor}, items must be
+ * consumed while the {@link org.apache.ibatis.session.SqlSession} that created the publisher is still open.
+ *
+ * @param <T> the item type
+ * @since 3.5.6
+ */
+public interface CursorPublisher<T> {
+
+    /**
+     * Subscribes to this publisher.
+     * Nothing is fetched from the database until the subscriber requests items.
+     *
+     * @param subscriber the subscriber that will receive the items
+     */
+    void subscribe(CursorSubscriber<? super T> subscriber);
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * Receiver of the items emitted by a {@link CursorPublisher}.
+ *
+ * @param <T> the item type
+ * @since 3.5.6
+ */
+public interface CursorSubscriber<T> {
+
+    /**
+     * Invoked once before any other signal.
+     *
+     * @param subscription the subscription used to request items or to cancel
+     */
+    void onSubscribe(CursorSubscription subscription);
+
+    /**
+     * Invoked for each requested item.
+     *
+     * @param item the next item
+     */
+    void onNext(T item);
+
+    /**
+     * Invoked when fetching or mapping a row failed. No other signal follows.
+     *
+     * @param throwable the failure
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Invoked when all the rows have been emitted. No other signal follows.
+     */
+    void onComplete();
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * Link between a {@link CursorPublisher} and its {@link CursorSubscriber}.
+ *
+ * @since 3.5.6
+ */
+public interface CursorSubscription {
+
+    /**
+     * Adds {@code n} items to the outstanding demand.
+     *
+     * @param n the number of items to request, must be positive
+     */
+    void request(long n);
+
+    /**
+     * Stops the emission and closes the underlying cursor, releasing the result set and its statement.
+     */
+    void cancel();
+
+}
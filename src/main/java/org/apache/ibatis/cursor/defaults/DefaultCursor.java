@@ -26,6 +26,7 @@ import org.apache.ibatis.session.RowBounds;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -100,6 +101,49 @@ public class DefaultCursor<T> implements Cursor<T> {
         }
     }
 
+    /**
+     * Hints the driver about how many rows to fetch per round trip for the rest of this cursor.
+     *
+     * @param fetchSize the number of rows, ignored when not positive
+     */
+    void applyFetchSize(int fetchSize) {
+        if (fetchSize <= 0 || isClosed()) {
+            return;
+        }
+        try {
+            rsw.getResultSet().setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            // a fetch size is only a hint, some drivers refuse to change it once the result set is open
+        }
+    }
+
+    /**
+     * Raises the fetch size to {@code fetchSize} when the result set currently fetches fewer rows per round trip.
+     * Negative fetch sizes are driver specific modes (e.g. MySQL streaming) and are left untouched.
+     *
+     * @param fetchSize the minimal number of rows
+     */
+    void ensureFetchSize(int fetchSize) {
+        if (isClosed()) {
+            return;
+        }
+        try {
+            int current = rsw.getResultSet().getFetchSize();
+            if (current >= 0 && current < fetchSize) {
+                applyFetchSize(fetchSize);
+            }
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    @Override
+    public Iterable<List<T>> chunks(int size) {
+        Iterable<List<T>> chunks = Cursor.super.chunks(size);
+        ensureFetchSize(size);
+        return chunks;
+    }
+
     protected T fetchNextUsingRowBound() {
         T result = fetchNextObjectFromDatabase();
         while (objectWrapperResultHandler.fetched && indexWithRowBound < rowBounds.getOffset()) {
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.CursorSubscriber;
+import org.apache.ibatis.cursor.CursorSubscription;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default implementation of {@link CursorPublisher} that drives a {@link Cursor} by subscriber demand.
+ * <p>
+ * Rows are fetched and mapped on the thread calling {@link CursorSubscription#request(long)} (re-entrant
+ * requests from {@code onNext} are queued, not recursed into), so no more rows than requested are read from the
+ * result set. Rows that map to {@code null} are skipped because a subscriber cannot receive {@code null}.
+ *
+ * @param <T> the item type
+ * @since 3.5.6
+ */
+public class DefaultCursorPublisher<T> implements CursorPublisher<T> {
+
+    private final Cursor<T> cursor;
+    private final int prefetch;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public DefaultCursorPublisher(Cursor<T> cursor) {
+        this(cursor, 0);
+    }
+
+    /**
+     * @param cursor   the cursor to publish
+     * @param prefetch the number of rows the driver should fetch per round trip; {@code 0} keeps the fetch size of
+     *                 the statement
+     */
+    public DefaultCursorPublisher(Cursor<T> cursor, int prefetch) {
+        if (prefetch < 0) {
+            throw new IllegalArgumentException("prefetch must not be negative but was " + prefetch);
+        }
+        this.cursor = cursor;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(CursorSubscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber must not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(CancelledSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("A CursorPublisher can only be subscribed once"));
+            return;
+        }
+        subscriber.onSubscribe(new DemandSubscription(subscriber));
+    }
+
+    private void applyFetchSize() {
+        if (prefetch <= 0) {
+            return;
+        }
+        if (cursor instanceof DefaultCursor) {
+            ((DefaultCursor<T>) cursor).applyFetchSize(prefetch);
+        } else if (cursor instanceof PrefetchingCursor) {
+            ((PrefetchingCursor<T>) cursor).applyFetchSize(prefetch);
+        }
+    }
+
+    private void closeCursor() {
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private class DemandSubscription implements CursorSubscription {
+
+        private final CursorSubscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private Iterator<T> iterator;
+
+        DemandSubscription(CursorSubscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The number of requested items must be positive but was " + n);
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /*
+         * Only the thread that moves wip from 0 touches the cursor, which is not thread safe. Other threads just
+         * record their signal and leave it to the running loop. Terminal paths return without releasing wip so
+         * that nothing runs afterwards.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                long emitted = 0;
+                while (true) {
+                    if (cancelled) {
+                        closeCursor();
+                        return;
+                    }
+                    if (invalidRequest != null) {
+                        cancelled = true;
+                        closeCursor();
+                        subscriber.onError(invalidRequest);
+                        return;
+                    }
+                    if (emitted == demand) {
+                        break;
+                    }
+                    final T item;
+                    try {
+                        if (iterator == null) {
+                            applyFetchSize();
+                            iterator = cursor.iterator();
+                        }
+                        if (!iterator.hasNext()) {
+                            cancelled = true;
+                            closeCursor();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        item = iterator.next();
+                    } catch (RuntimeException e) {
+                        cancelled = true;
+                        closeCursor();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (item != null) {
+                        try {
+                            subscriber.onNext(item);
+                        } catch (RuntimeException | Error e) {
+                            cancelled = true;
+                            closeCursor();
+                            throw e;
+                        }
+                        emitted++;
+                    }
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    private enum CancelledSubscription implements CursorSubscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+            // nothing to emit
+        }
+
+        @Override
+        public void cancel() {
+            // nothing to release
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.ExecutorException;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cursor that reads and maps rows of a delegate cursor on a dedicated thread, ahead of the consumer.
+ * <p>
+ * Mapped rows are handed over through a bounded buffer, so fetching from the driver and building objects overlap
+ * with the processing done by the consumer while no more than {@code bufferSize} rows are held in memory. The
+ * background thread is started by the first call to {@link Iterator#hasNext()} or {@link Iterator#next()} and
+ * ends when the delegate is consumed or when this cursor is closed; {@link #close()} waits for it before closing
+ * the delegate so the result set is never accessed concurrently.
+ * <p>
+ * Only use this cursor for result maps without nested selects: the background thread must be the only one using
+ * the delegate, and a nested select would run on the session's executor from that thread. The session should not
+ * run other statements while the cursor is being read.
+ *
+ * @param <T> the item type
+ * @since 3.5.6
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final Object NULL_ROW = new Object();
+    private static final Object END = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 50;
+
+    private final Cursor<T> delegate;
+    private final BlockingQueue<Object> buffer;
+    private final PrefetchingIterator cursorIterator = new PrefetchingIterator();
+    private final int indexBeforeFirstRow;
+    private boolean iteratorRetrieved;
+
+    private volatile boolean closed;
+    private boolean consumed;
+    private Thread producer;
+    private RuntimeException failure;
+
+    public PrefetchingCursor(Cursor<T> delegate, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+        }
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.indexBeforeFirstRow = delegate.getCurrentIndex();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return producer != null && !closed && !consumed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return indexBeforeFirstRow + cursorIterator.index + 1;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        if (closed || consumed) {
+            throw new IllegalStateException("A Cursor is already closed.");
+        }
+        iteratorRetrieved = true;
+        return cursorIterator;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (producer != null) {
+            // frees a slot in case the producer waits on a full buffer, it then notices the close flag
+            buffer.clear();
+            boolean interrupted = false;
+            while (producer.isAlive()) {
+                try {
+                    producer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            buffer.clear();
+        }
+        try {
+            delegate.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Forwards the fetch size hint to the delegate as long as the background thread has not started.
+     *
+     * @param fetchSize the number of rows, ignored when not positive
+     */
+    void applyFetchSize(int fetchSize) {
+        if (producer == null && delegate instanceof DefaultCursor) {
+            ((DefaultCursor<T>) delegate).applyFetchSize(fetchSize);
+        }
+    }
+
+    @Override
+    public Iterable<List<T>> chunks(int size) {
+        Iterable<List<T>> chunks = Cursor.super.chunks(size);
+        if (producer == null && delegate instanceof DefaultCursor) {
+            ((DefaultCursor<T>) delegate).ensureFetchSize(size);
+        }
+        return chunks;
+    }
+
+    private void startProducer() {
+        final Iterator<T> rows = delegate.iterator();
+        producer = new Thread(() -> {
+            try {
+                while (!closed && rows.hasNext()) {
+                    T row = rows.next();
+                    if (!put(row == null ? NULL_ROW : row)) {
+                        return;
+                    }
+                }
+                put(END);
+            } catch (RuntimeException e) {
+                put(new Failure(e));
+            } catch (Error e) {
+                put(new Failure(new ExecutorException("Error prefetching cursor rows.  Cause: " + e, e)));
+                throw e;
+            }
+        }, "mybatis-cursor-prefetch-" + threadCount.incrementAndGet());
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private boolean put(Object element) {
+        try {
+            while (!closed) {
+                if (buffer.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static class Failure {
+        private final RuntimeException cause;
+
+        Failure(RuntimeException cause) {
+            this.cause = cause;
+        }
+    }
+
+    private class PrefetchingIterator implements Iterator<T> {
+
+        private Object next;
+        private int index = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = take();
+            }
+            return next != END;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object element = next;
+            next = null;
+            index++;
+            return element == NULL_ROW ? null : (T) element;
+        }
+
+        private Object take() {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed || consumed) {
+                return END;
+            }
+            if (producer == null) {
+                startProducer();
+            }
+            Object element;
+            try {
+                element = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExecutorException("Interrupted while waiting for the next row of the cursor", e);
+            }
+            if (element instanceof Failure) {
+                failure = ((Failure) element).cause;
+                close();
+                throw failure;
+            }
+            if (element == END) {
+                consumed = true;
+                close();
+            }
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove element from Cursor");
+        }
+    }
+}
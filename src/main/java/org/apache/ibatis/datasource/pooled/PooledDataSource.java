@@ -28,10 +28,17 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
  * This is a simple, synchronous, thread-safe database connection pool.
+ * <p>
+ * The pool state is guarded by a {@link ReentrantLock} rather than a monitor, so threads waiting for
+ * a connection (or creating one while holding the lock) do not pin their carrier thread when running
+ * on virtual threads.
  *
  * @author Clinton Begin
  */
@@ -39,6 +46,9 @@ public class PooledDataSource implements DataSource {
 
     private static final Log log = LogFactory.getLog(PooledDataSource.class);
 
+    final ReentrantLock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+
     private final PoolState state = new PoolState(this);
 
     private final UnpooledDataSource dataSource;
@@ -344,7 +354,8 @@ public class PooledDataSource implements DataSource {
      * Closes all active and idle connections in the pool.
      */
     public void forceCloseAll() {
-        synchronized (state) {
+        lock.lock();
+        try {
             expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
             for (int i = state.activeConnections.size(); i > 0; i--) {
                 try {
@@ -374,6 +385,8 @@ public class PooledDataSource implements DataSource {
                     // ignore
                 }
             }
+        } finally {
+            lock.unlock();
         }
         if (log.isDebugEnabled()) {
             log.debug("PooledDataSource forcefully closed/removed all connections.");
@@ -390,7 +403,8 @@ public class PooledDataSource implements DataSource {
 
     protected void pushConnection(PooledConnection conn) throws SQLException {
 
-        synchronized (state) {
+        lock.lock();
+        try {
             state.activeConnections.remove(conn);
             if (conn.isValid()) {
                 if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
@@ -406,7 +420,7 @@ public class PooledDataSource implements DataSource {
                     if (log.isDebugEnabled()) {
                         log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
                     }
-                    state.notifyAll();
+                    condition.signal();
                 } else {
                     state.accumulatedCheckoutTime += conn.getCheckoutTime();
                     if (!conn.getRealConnection().getAutoCommit()) {
@@ -424,6 +438,8 @@ public class PooledDataSource implements DataSource {
                 }
                 state.badConnectionCount++;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -434,7 +450,8 @@ public class PooledDataSource implements DataSource {
         int localBadConnectionCount = 0;
 
         while (conn == null) {
-            synchronized (state) {
+            lock.lock();
+            try {
                 if (!state.idleConnections.isEmpty()) {
                     // Pool has available connection
                     conn = state.idleConnections.remove(0);
@@ -492,7 +509,7 @@ public class PooledDataSource implements DataSource {
                                     log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
                                 }
                                 long wt = System.currentTimeMillis();
-                                state.wait(poolTimeToWait);
+                                condition.await(poolTimeToWait, TimeUnit.MILLISECONDS);
                                 state.accumulatedWaitTime += System.currentTimeMillis() - wt;
                             } catch (InterruptedException e) {
                                 break;
@@ -527,6 +544,8 @@ public class PooledDataSource implements DataSource {
                         }
                     }
                 }
+            } finally {
+                lock.unlock();
             }
 
         }
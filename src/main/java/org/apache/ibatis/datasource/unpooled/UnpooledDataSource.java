@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
@@ -34,6 +35,7 @@ import java.util.logging.Logger;
 public class UnpooledDataSource implements DataSource {
 
     private static Map<String, Driver> registeredDrivers = new ConcurrentHashMap<>();
+    private static final ReentrantLock driverRegistrationLock = new ReentrantLock();
 
     static {
         Enumeration<Driver> drivers = DriverManager.getDrivers();
@@ -45,7 +47,7 @@ public class UnpooledDataSource implements DataSource {
 
     private ClassLoader driverClassLoader;
     private Properties driverProperties;
-    private String driver;
+    private volatile String driver;
     private String url;
     private String username;
     private String password;
@@ -130,11 +132,11 @@ public class UnpooledDataSource implements DataSource {
         this.driverProperties = driverProperties;
     }
 
-    public synchronized String getDriver() {
+    public String getDriver() {
         return driver;
     }
 
-    public synchronized void setDriver(String driver) {
+    public void setDriver(String driver) {
         this.driver = driver;
     }
 
@@ -220,23 +222,33 @@ public class UnpooledDataSource implements DataSource {
         return connection;
     }
 
-    private synchronized void initializeDriver() throws SQLException {
-        if (!registeredDrivers.containsKey(driver)) {
-            Class<?> driverType;
-            try {
-                if (driverClassLoader != null) {
-                    driverType = Class.forName(driver, true, driverClassLoader);
-                } else {
-                    driverType = Resources.classForName(driver);
+    private void initializeDriver() throws SQLException {
+        final String driver = this.driver;
+        // fast path: once the driver is registered no lock is taken for subsequent connections
+        if (registeredDrivers.containsKey(driver)) {
+            return;
+        }
+        driverRegistrationLock.lock();
+        try {
+            if (!registeredDrivers.containsKey(driver)) {
+                Class<?> driverType;
+                try {
+                    if (driverClassLoader != null) {
+                        driverType = Class.forName(driver, true, driverClassLoader);
+                    } else {
+                        driverType = Resources.classForName(driver);
+                    }
+                    // DriverManager requires the driver to be loaded via the system ClassLoader.
+                    // http://www.kfu.com/~nsayer/Java/dyn-jdbc.html
+                    Driver driverInstance = (Driver) driverType.getDeclaredConstructor().newInstance();
+                    DriverManager.registerDriver(new DriverProxy(driverInstance));
+                    registeredDrivers.put(driver, driverInstance);
+                } catch (Exception e) {
+                    throw new SQLException("Error setting driver on UnpooledDataSource. Cause: " + e);
                 }
-                // DriverManager requires the driver to be loaded via the system ClassLoader.
-                // http://www.kfu.com/~nsayer/Java/dyn-jdbc.html
-                Driver driverInstance = (Driver) driverType.getDeclaredConstructor().newInstance();
-                DriverManager.registerDriver(new DriverProxy(driverInstance));
-                registeredDrivers.put(driver, driverInstance);
-            } catch (Exception e) {
-                throw new SQLException("Error setting driver on UnpooledDataSource. Cause: " + e);
             }
+        } finally {
+            driverRegistrationLock.unlock();
         }
     }
 
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A column oriented result table: every column of the result set is kept in its own array instead of one object per
+ * row.
+ * <p>
+ * Columns read by one of the built-in primitive type handlers (see {@link PrimitiveTypeHandler#of(TypeHandler)}) are
+ * stored in {@code int[]}, {@code long[]} or {@code double[]} arrays and read without boxing; every other column is stored as the objects returned by its type
+ * handler. {@code NULL} values are tracked per column and read as zero from primitive columns. Rows and columns are
+ * both indexed from 0.
+ *
+ * @since 3.5.6
+ */
+public class ColumnarResult {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<String> columnNames;
+    private final Column[] columns;
+    private int rowCount;
+    private int capacity;
+
+    public ColumnarResult(List<String> columnNames, List<TypeHandler<?>> typeHandlers) {
+        if (columnNames.size() != typeHandlers.size()) {
+            throw new IllegalArgumentException("Expected one type handler per column but got " + typeHandlers.size()
+                    + " type handlers for " + columnNames.size() + " columns.");
+        }
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.columns = new Column[columnNames.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = newColumn(typeHandlers.get(i));
+        }
+    }
+
+    /**
+     * Appends the current row of the result set, reading column {@code i} of this table from column {@code i + 1}.
+     *
+     * @param rs the result set positioned on a row
+     * @throws SQLException if a column cannot be read
+     */
+    public void readRow(ResultSet rs) throws SQLException {
+        if (rowCount == capacity) {
+            capacity = capacity == 0 ? INITIAL_CAPACITY : Math.max(rowCount + 1, capacity + (capacity >> 1));
+            for (Column column : columns) {
+                column.grow(capacity);
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].read(rs, i + 1, rowCount);
+        }
+        rowCount++;
+    }
+
+    /**
+     * Releases the unused capacity of the column arrays.
+     */
+    public void trimToSize() {
+        if (capacity > rowCount) {
+            capacity = rowCount;
+            for (Column column : columns) {
+                column.grow(capacity);
+            }
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the index of a column, ignoring case like the automatic mapping does.
+     *
+     * @param columnName the column name or label
+     * @return the column index, or -1 if there is no such column
+     */
+    public int getColumnIndex(String columnName) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns how a column is stored.
+     *
+     * @param column the column index
+     * @return {@code int.class}, {@code long.class}, {@code double.class} or {@code Object.class}
+     */
+    public Class<?> getColumnType(int column) {
+        return columns[column].getType();
+    }
+
+    public boolean isNull(int row, int column) {
+        checkRow(row);
+        return columns[column].nulls.get(row);
+    }
+
+    public int getInt(int row, int column) {
+        checkRow(row);
+        return ((IntColumn) primitiveColumn(column, int.class)).values[row];
+    }
+
+    public long getLong(int row, int column) {
+        checkRow(row);
+        return ((LongColumn) primitiveColumn(column, long.class)).values[row];
+    }
+
+    public double getDouble(int row, int column) {
+        checkRow(row);
+        return ((DoubleColumn) primitiveColumn(column, double.class)).values[row];
+    }
+
+    /**
+     * Returns a value of any column, boxing the values of primitive columns.
+     *
+     * @param row    the row index
+     * @param column the column index
+     * @return the value, or {@code null} if it was {@code NULL}
+     */
+    public Object getObject(int row, int column) {
+        checkRow(row);
+        return columns[column].nulls.get(row) ? null : columns[column].get(row);
+    }
+
+    /**
+     * Returns the values of an {@code int} column. The array may be longer than {@link #getRowCount()} unless
+     * {@link #trimToSize()} was called, and is not copied.
+     *
+     * @param column the column index
+     * @return the backing array of the column
+     */
+    public int[] getIntColumn(int column) {
+        return ((IntColumn) primitiveColumn(column, int.class)).values;
+    }
+
+    /**
+     * Returns the values of a {@code long} column, see {@link #getIntColumn(int)}.
+     *
+     * @param column the column index
+     * @return the backing array of the column
+     */
+    public long[] getLongColumn(int column) {
+        return ((LongColumn) primitiveColumn(column, long.class)).values;
+    }
+
+    /**
+     * Returns the values of a {@code double} column, see {@link #getIntColumn(int)}.
+     *
+     * @param column the column index
+     * @return the backing array of the column
+     */
+    public double[] getDoubleColumn(int column) {
+        return ((DoubleColumn) primitiveColumn(column, double.class)).values;
+    }
+
+    /**
+     * Returns the rows holding {@code NULL} in a column.
+     *
+     * @param column the column index
+     * @return a copy of the null flags of the column
+     */
+    public BitSet getNulls(int column) {
+        return (BitSet) columns[column].nulls.clone();
+    }
+
+    private Column primitiveColumn(int column, Class<?> type) {
+        Column values = columns[column];
+        if (values.getType() != type) {
+            throw new IllegalStateException("Column '" + columnNames.get(column) + "' holds " + values.getType() + " values, not " + type + ".");
+        }
+        return values;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + rowCount);
+        }
+    }
+
+    private static Column newColumn(TypeHandler<?> typeHandler) {
+        PrimitiveTypeHandler primitive = PrimitiveTypeHandler.of(typeHandler);
+        if (primitive != null) {
+            Class<?> primitiveType = primitive.getPrimitiveType();
+            if (primitiveType == int.class) {
+                return new IntColumn(primitive);
+            } else if (primitiveType == long.class) {
+                return new LongColumn(primitive);
+            } else if (primitiveType == double.class) {
+                return new DoubleColumn(primitive);
+            }
+        }
+        return new ObjectColumn(typeHandler);
+    }
+
+    private abstract static class Column {
+        final BitSet nulls = new BitSet();
+
+        abstract Class<?> getType();
+
+        abstract void grow(int capacity);
+
+        abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+        abstract Object get(int row);
+    }
+
+    private static final class IntColumn extends Column {
+        private final PrimitiveTypeHandler typeHandler;
+        private int[] values = new int[0];
+
+        IntColumn(PrimitiveTypeHandler typeHandler) {
+            this.typeHandler = typeHandler;
+        }
+
+        @Override
+        Class<?> getType() {
+            return int.class;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            values[row] = typeHandler.getInt(rs, columnIndex);
+            if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private final PrimitiveTypeHandler typeHandler;
+        private long[] values = new long[0];
+
+        LongColumn(PrimitiveTypeHandler typeHandler) {
+            this.typeHandler = typeHandler;
+        }
+
+        @Override
+        Class<?> getType() {
+            return long.class;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            values[row] = typeHandler.getLong(rs, columnIndex);
+            if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private final PrimitiveTypeHandler typeHandler;
+        private double[] values = new double[0];
+
+        DoubleColumn(PrimitiveTypeHandler typeHandler) {
+            this.typeHandler = typeHandler;
+        }
+
+        @Override
+        Class<?> getType() {
+            return double.class;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            values[row] = typeHandler.getDouble(rs, columnIndex);
+            if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private final TypeHandler<?> typeHandler;
+        private Object[] values = new Object[0];
+
+        ObjectColumn(TypeHandler<?> typeHandler) {
+            this.typeHandler = typeHandler;
+        }
+
+        @Override
+        Class<?> getType() {
+            return Object.class;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            Object value = typeHandler.getResult(rs, columnIndex);
+            values[row] = value;
+            if (value == null) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+}
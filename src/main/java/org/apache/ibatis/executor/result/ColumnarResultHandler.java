@@ -0,0 +1,76 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.util.List;
+
+/**
+ * Collects a select into a {@link ColumnarResult}.
+ * <p>
+ * The result set handler does not map any row object for this handler: it resolves one type handler per column and
+ * copies every row straight into the columnar table, ignoring the result maps of the statement. Every result set of
+ * the statement must have the same columns.
+ *
+ * @since 3.5.6
+ */
+public class ColumnarResultHandler implements ResultHandler<Object> {
+
+    private ColumnarResult result;
+
+    /**
+     * Returns the table for the columns of a result set, creating it for the first result set.
+     *
+     * @param columnNames  the column names of the result set
+     * @param typeHandlers the type handler of each column
+     * @return the table to fill
+     */
+    public ColumnarResult getResult(List<String> columnNames, List<TypeHandler<?>> typeHandlers) {
+        if (result == null) {
+            result = new ColumnarResult(columnNames, typeHandlers);
+        } else if (!result.getColumnNames().equals(columnNames)) {
+            throw new ExecutorException("Cannot add the columns " + columnNames + " to a columnar result of " + result.getColumnNames() + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the collected table.
+     *
+     * @return the table, or {@code null} if no result set was read
+     */
+    public ColumnarResult getResult() {
+        return result;
+    }
+
+    /**
+     * Never called by the default result set handler, which recognizes this handler and fills the table straight from
+     * the result set. A row object only reaches this method when a custom {@code ResultSetHandler} mapped the rows
+     * instead, which cannot be turned back into columns.
+     *
+     * @throws ExecutorException always
+     */
+    @Override
+    public void handleResult(ResultContext<?> context) {
+        throw new ExecutorException("Columnar results can only be read by the default result set handler, but received the row object "
+                + context.getResultObject() + ".");
+    }
+
+}
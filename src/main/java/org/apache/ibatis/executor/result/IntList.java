@@ -0,0 +1,102 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable list of {@code int} values backed by a {@code int[]}, used as the result of single column selects
+ * without boxing every row.
+ * <p>
+ * A mapper method returning {@code IntList} reads the first column of every row with
+ * {@link org.apache.ibatis.type.PrimitiveTypeHandler#getInt(java.sql.ResultSet, int)} when the column type handler
+ * supports it. The list does not accept {@code null} elements.
+ *
+ * @since 3.5.6
+ */
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements;
+    private int size;
+
+    public IntList() {
+        this.elements = EMPTY;
+    }
+
+    public IntList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.elements = initialCapacity == 0 ? EMPTY : new int[initialCapacity];
+    }
+
+    public void addInt(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(10, size + (size >> 1)));
+        }
+        elements[size++] = value;
+        modCount++;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        checkIndex(index);
+        int previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
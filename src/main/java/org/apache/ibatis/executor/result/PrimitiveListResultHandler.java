@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.math.BigDecimal;
+
+/**
+ * Collects the rows of a single column select into an {@link IntList} or a {@link LongList}.
+ * <p>
+ * The result set handler adds the values directly through {@link #addInt(int)} or {@link #addLong(long)} when the
+ * column type handler can read the primitive type; otherwise every mapped row goes through
+ * {@link #handleResult(ResultContext)} and is unboxed here. Values which do not fit the primitive type, or have a
+ * fractional part, are rejected rather than truncated.
+ *
+ * @since 3.5.6
+ */
+public class PrimitiveListResultHandler implements ResultHandler<Object> {
+
+    private final IntList intList;
+    private final LongList longList;
+
+    public PrimitiveListResultHandler(IntList intList) {
+        this.intList = intList;
+        this.longList = null;
+    }
+
+    public PrimitiveListResultHandler(LongList longList) {
+        this.intList = null;
+        this.longList = longList;
+    }
+
+    /**
+     * Returns the primitive type of the collected values.
+     *
+     * @return {@code int.class} or {@code long.class}
+     */
+    public Class<?> getPrimitiveType() {
+        return intList != null ? int.class : long.class;
+    }
+
+    public void addInt(int value) {
+        intList.addInt(value);
+    }
+
+    public void addLong(long value) {
+        longList.addLong(value);
+    }
+
+    @Override
+    public void handleResult(ResultContext<?> context) {
+        Object value = context.getResultObject();
+        long longValue = toLong(value);
+        if (intList != null) {
+            if ((int) longValue != longValue) {
+                throw cannotAdd(value, null);
+            }
+            intList.addInt((int) longValue);
+        } else {
+            longList.addLong(longValue);
+        }
+    }
+
+    // 只接受没有小数部分的数值, 不做截断
+    private long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (!(value instanceof Number)) {
+            throw cannotAdd(value, null);
+        }
+        try {
+            return new BigDecimal(value.toString()).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw cannotAdd(value, e);
+        }
+    }
+
+    private ExecutorException cannotAdd(Object value, Exception cause) {
+        return new ExecutorException("Cannot add '" + value + "' to a list of " + getPrimitiveType() + " values.", cause);
+    }
+
+}
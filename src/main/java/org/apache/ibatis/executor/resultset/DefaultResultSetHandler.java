@@ -20,14 +20,18 @@ import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.result.ColumnarResult;
+import org.apache.ibatis.executor.result.ColumnarResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
+import org.apache.ibatis.executor.result.PrimitiveListResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.reflection.MetaClass;
@@ -36,6 +40,7 @@ import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -45,6 +50,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author Clinton Begin
@@ -68,14 +76,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final ReflectorFactory reflectorFactory;
 
     // nested resultmaps
-    private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+    private final Map<RowKey, Object> nestedResultObjects = new HashMap<>();
     private final Map<String, Object> ancestorObjects = new HashMap<>();
     // multiple resultsets
     private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
     private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
-    // Cached Automappings
-    private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
     private Object previousRowValue;
+    // result map whose ordering was detected from the SQL, and the outcome
+    private ResultMap resultOrderedResultMap;
+    private boolean detectedResultOrdered;
     // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
     private boolean useConstructorMappings;
 
@@ -154,7 +163,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         while (rsw != null && resultMapCount > resultSetCount) {
             ResultMap resultMap = resultMaps.get(resultSetCount);
             handleResultSet(rsw, resultMap, multipleResults, null);
-            rsw = getNextResultSet(stmt);
+            rsw = getNextResultSet(stmt, resultSetCount + 1);
             cleanUpAfterHandlingResultSet();
             resultSetCount++;
         }
@@ -168,7 +177,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                     ResultMap resultMap = configuration.getResultMap(nestedResultMapId);
                     handleResultSet(rsw, resultMap, null, parentMapping);
                 }
-                rsw = getNextResultSet(stmt);
+                rsw = getNextResultSet(stmt, resultSetCount + 1);
                 cleanUpAfterHandlingResultSet();
                 resultSetCount++;
             }
@@ -192,7 +201,38 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
 
         ResultMap resultMap = resultMaps.get(0);
-        return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+        Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+        Integer prefetchSize = configuration.getCursorPrefetchSize();
+        if (prefetchSize != null && prefetchSize > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+            return new PrefetchingCursor<>(cursor, prefetchSize);
+        }
+        return cursor;
+    }
+
+    private boolean hasNestedQueries(ResultMap resultMap, Set<String> visitedResultMapIds) {
+        if (!visitedResultMapIds.add(resultMap.getId())) {
+            return false;
+        }
+        if (resultMap.hasNestedQueries()) {
+            return true;
+        }
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            if (nestedResultMapId != null
+                    && hasNestedQueries(configuration.getResultMap(nestedResultMapId), visitedResultMapIds)) {
+                return true;
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String discriminatedMapId : discriminator.getDiscriminatorMap().values()) {
+                if (configuration.hasResultMap(discriminatedMapId)
+                        && hasNestedQueries(configuration.getResultMap(discriminatedMapId), visitedResultMapIds)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -209,10 +249,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 }
             }
         }
-        return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+        return rs != null ? new ResultSetWrapper(rs, configuration, mappedStatement, 0) : null;
     }
 
-    private ResultSetWrapper getNextResultSet(Statement stmt) {
+    private ResultSetWrapper getNextResultSet(Statement stmt, int resultSetIndex) {
         // Making this method tolerant of bad JDBC drivers
         try {
             if (stmt.getConnection().getMetaData().supportsMultipleResultSets()) {
@@ -220,9 +260,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 if (!(!stmt.getMoreResults() && stmt.getUpdateCount() == -1)) {
                     ResultSet rs = stmt.getResultSet();
                     if (rs == null) {
-                        return getNextResultSet(stmt);
+                        return getNextResultSet(stmt, resultSetIndex);
                     } else {
-                        return new ResultSetWrapper(rs, configuration);
+                        return new ResultSetWrapper(rs, configuration, mappedStatement, resultSetIndex);
                     }
                 }
             }
@@ -260,10 +300,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             } else {
                 if (resultHandler == null) {
                     DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
-                    handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
+                    handleTopLevelRowValues(rsw, resultMap, defaultResultHandler, rowBounds);
                     multipleResults.add(defaultResultHandler.getResultList());
                 } else {
-                    handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
+                    handleTopLevelRowValues(rsw, resultMap, resultHandler, rowBounds);
                 }
             }
         } finally {
@@ -280,8 +320,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
         if (resultMap.hasNestedResultMaps()) {
             ensureNoRowBounds();
-            checkResultHandler();
-            handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
+            final boolean resultOrdered = mappedStatement.isResultOrdered() || parentMapping == null && isDetectedResultOrdered(rsw, resultMap);
+            if (!resultOrdered) {
+                checkResultHandler();
+            }
+            handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping, resultOrdered);
         } else {
             handleRowValuesForSimpleResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
         }
@@ -294,6 +337,32 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
     }
 
+    private boolean isDetectedResultOrdered(ResultSetWrapper rsw, ResultMap resultMap) {
+        if (resultMap != resultOrderedResultMap) {
+            detectedResultOrdered = detectResultOrdered(rsw, resultMap);
+            resultOrderedResultMap = resultMap;
+        }
+        return detectedResultOrdered;
+    }
+
+    /**
+     * Detects whether the SQL orders the rows by the id columns of the result map, so that the rows of each object are
+     * contiguous and completed objects can be released as soon as the next one starts.
+     */
+    private boolean detectResultOrdered(ResultSetWrapper rsw, ResultMap resultMap) {
+        if (!configuration.isDetectResultOrdered() || boundSql == null || resultMap.getDiscriminator() != null) {
+            return false;
+        }
+        final Set<String> idColumns = new HashSet<>();
+        for (ResultMapping idMapping : resultMap.getIdResultMappings()) {
+            if (!idMapping.isSimple() || idMapping.getColumn() == null) {
+                return false;
+            }
+            idColumns.add(idMapping.getColumn());
+        }
+        return OrderedResultDetector.isOrderedBy(boundSql.getSql(), rsw.getColumnNames(), idColumns);
+    }
+
     //
     // HANDLE ROWS FOR SIMPLE RESULTMAP
     //
@@ -318,6 +387,264 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
     }
 
+    //
+    // HANDLE ROWS FOR SIMPLE RESULTMAP IN PARALLEL
+    //
+
+    private void handleTopLevelRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds) throws SQLException {
+        Integer chunkSize = configuration.getParallelResultMappingChunkSize();
+        if (resultHandler instanceof ColumnarResultHandler) {
+            handleColumnarRowValues(rsw, (ColumnarResultHandler) resultHandler, rowBounds);
+        } else if (resultHandler instanceof PrimitiveListResultHandler
+                && handlePrimitiveRowValues(rsw, resultMap, (PrimitiveListResultHandler) resultHandler, rowBounds)) {
+            return;
+        } else if (chunkSize != null && chunkSize > 0 && canMapInParallel(rsw, resultMap, new HashSet<>())) {
+            handleRowValuesInParallel(rsw, resultMap, resultHandler, rowBounds, chunkSize);
+        } else {
+            handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
+        }
+    }
+
+    //
+    // HANDLE ROWS INTO COLUMNS
+    //
+
+    private void handleColumnarRowValues(ResultSetWrapper rsw, ColumnarResultHandler resultHandler, RowBounds rowBounds) throws SQLException {
+        final List<String> columnNames = rsw.getColumnNames();
+        final List<TypeHandler<?>> typeHandlers = new ArrayList<>(columnNames.size());
+        for (String columnName : columnNames) {
+            // resolved from the column metadata, as for an automatically mapped Object property
+            typeHandlers.add(rsw.getTypeHandler(Object.class, columnName));
+        }
+        final ColumnarResult result = resultHandler.getResult(columnNames, typeHandlers);
+        final ResultSet resultSet = rsw.getResultSet();
+        skipRows(resultSet, rowBounds);
+        int rows = 0;
+        while (rows < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next()) {
+            result.readRow(resultSet);
+            rows++;
+        }
+    }
+
+    //
+    // HANDLE ROWS OF A SINGLE PRIMITIVE COLUMN
+    //
+
+    private boolean handlePrimitiveRowValues(ResultSetWrapper rsw, ResultMap resultMap, PrimitiveListResultHandler resultHandler, RowBounds rowBounds) throws SQLException {
+        final PrimitiveTypeHandler typeHandler = getPrimitiveColumnTypeHandler(rsw, resultMap, resultHandler.getPrimitiveType());
+        if (typeHandler == null) {
+            return false;
+        }
+        final ResultSet resultSet = rsw.getResultSet();
+        final boolean ints = resultHandler.getPrimitiveType() == int.class;
+        skipRows(resultSet, rowBounds);
+        int rows = 0;
+        while (rows < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next()) {
+            if (ints) {
+                final int value = typeHandler.getInt(resultSet, 1);
+                checkPrimitiveNotNull(resultSet, rsw, resultMap);
+                resultHandler.addInt(value);
+            } else {
+                final long value = typeHandler.getLong(resultSet, 1);
+                checkPrimitiveNotNull(resultSet, rsw, resultMap);
+                resultHandler.addLong(value);
+            }
+            rows++;
+        }
+        return true;
+    }
+
+    private PrimitiveTypeHandler getPrimitiveColumnTypeHandler(ResultSetWrapper rsw, ResultMap resultMap, Class<?> primitiveType) {
+        // same column and type handler as createPrimitiveResultObject for a result map without mappings
+        if (resultMap.hasNestedResultMaps() || resultMap.getDiscriminator() != null || !resultMap.getResultMappings().isEmpty()
+                || rsw.getColumnNames().isEmpty() || !typeHandlerRegistry.hasTypeHandler(resultMap.getType())) {
+            return null;
+        }
+        final PrimitiveTypeHandler typeHandler = PrimitiveTypeHandler.of(rsw.getTypeHandler(resultMap.getType(), rsw.getColumnNames().get(0)));
+        return typeHandler != null && typeHandler.getPrimitiveType() == primitiveType ? typeHandler : null;
+    }
+
+    private void checkPrimitiveNotNull(ResultSet resultSet, ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+        if (resultSet.wasNull()) {
+            throw new ExecutorException("Column '" + rsw.getColumnNames().get(0) + "' of result map '" + resultMap.getId()
+                    + "' returned null, which cannot be added to a list of primitive values.");
+        }
+    }
+
+    private boolean canMapInParallel(ResultSetWrapper rsw, ResultMap resultMap, Set<String> visitedResultMapIds) {
+        if (!visitedResultMapIds.add(resultMap.getId())) {
+            return true;
+        }
+        if (!isFlatResultMap(rsw, resultMap)) {
+            return false;
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String discriminatedMapId : discriminator.getDiscriminatorMap().values()) {
+                if (configuration.hasResultMap(discriminatedMapId)
+                        && !canMapInParallel(rsw, configuration.getResultMap(discriminatedMapId), visitedResultMapIds)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the column values of each row on the calling thread, as a {@link ResultSet} must not be shared between
+     * threads, and hands chunks of rows over to the common fork-join pool that instantiates the result objects and
+     * sets their properties. Chunks are passed to the result handler on the calling thread in their original order.
+     */
+    private void handleRowValuesInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, int chunkSize)
+            throws SQLException {
+        final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+        final ResultSet resultSet = rsw.getResultSet();
+        final Map<String, FlatRowMapper> rowMappers = new HashMap<>();
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int maxPendingChunks = pool.getParallelism() + 1;
+        final Deque<ForkJoinTask<Object[]>> pendingChunks = new ArrayDeque<>();
+        skipRows(resultSet, rowBounds);
+        int readRows = 0;
+        try {
+            boolean moreRows = true;
+            while (moreRows && !resultContext.isStopped()) {
+                final FlatRowMapper[] chunkMappers = new FlatRowMapper[chunkSize];
+                final Object[][] chunkValues = new Object[chunkSize][];
+                int count = 0;
+                while (count < chunkSize && (moreRows = readRows < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next())) {
+                    ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+                    FlatRowMapper rowMapper = rowMappers.get(discriminatedResultMap.getId());
+                    if (rowMapper == null) {
+                        rowMapper = getFlatRowMapper(rsw, discriminatedResultMap);
+                        rowMappers.put(discriminatedResultMap.getId(), rowMapper);
+                    }
+                    chunkMappers[count] = rowMapper;
+                    chunkValues[count] = rowMapper.readValues(resultSet);
+                    count++;
+                    readRows++;
+                }
+                if (count == 0) {
+                    break;
+                }
+                final int rows = count;
+                if (!moreRows && pendingChunks.isEmpty()) {
+                    // a single chunk is not worth the hand-off to another thread
+                    storeObjects(resultHandler, resultContext, mapRows(chunkMappers, chunkValues, rows));
+                    break;
+                }
+                pendingChunks.add(pool.submit(() -> mapRows(chunkMappers, chunkValues, rows)));
+                while (!pendingChunks.isEmpty() && (pendingChunks.size() >= maxPendingChunks || pendingChunks.peek().isDone())
+                        && !resultContext.isStopped()) {
+                    storeObjects(resultHandler, resultContext, awaitChunk(pendingChunks.poll()));
+                }
+            }
+            while (!pendingChunks.isEmpty() && !resultContext.isStopped()) {
+                storeObjects(resultHandler, resultContext, awaitChunk(pendingChunks.poll()));
+            }
+        } finally {
+            for (ForkJoinTask<Object[]> pendingChunk : pendingChunks) {
+                pendingChunk.cancel(false);
+            }
+        }
+    }
+
+    private void storeObjects(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object[] rowValues) {
+        for (Object rowValue : rowValues) {
+            if (resultContext.isStopped()) {
+                return;
+            }
+            callResultHandler(resultHandler, resultContext, rowValue);
+        }
+    }
+
+    private Object[] awaitChunk(ForkJoinTask<Object[]> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorException("Interrupted while mapping results in parallel", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExecutorException("Error mapping results in parallel.  Cause: " + cause, cause);
+        }
+    }
+
+    private Object[] mapRows(FlatRowMapper[] rowMappers, Object[][] values, int rows) {
+        final Object[] rowValues = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            rowValues[i] = rowMappers[i].mapRow(values[i]);
+        }
+        return rowValues;
+    }
+
+    //
+    // FLAT ROW MAPPERS
+    //
+
+    private boolean isFlatResultMap(ResultSetWrapper rsw, ResultMap resultMap) {
+        final Class<?> resultType = resultMap.getType();
+        if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries() || !resultMap.getConstructorResultMappings().isEmpty()
+                || hasTypeHandlerForResultObject(rsw, resultType)
+                || !(resultType.isInterface() || MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor())) {
+            return false;
+        }
+        for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+            if (propertyMapping.getResultSet() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the row mapper of a flat result map for the current result set, shared through the result set layout by
+     * all result sets with the same columns.
+     *
+     * @return the mapper, or null when the result map is not flat
+     */
+    private FlatRowMapper getFlatRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+        final ResultSetLayout layout = rsw.getLayout();
+        FlatRowMapper rowMapper = layout.getRowMapper(resultMap);
+        if (rowMapper != null && layout.hasUnknownColumns(resultMap, null)
+                && configuration.getAutoMappingUnknownColumnBehavior() != AutoMappingUnknownColumnBehavior.NONE) {
+            // rebuilt so that the unknown column behavior applies to every query, like the reflective path
+            return createFlatRowMapper(rsw, resultMap);
+        }
+        if (rowMapper == null && !layout.isNonFlat(resultMap)) {
+            if (isFlatResultMap(rsw, resultMap)) {
+                rowMapper = createFlatRowMapper(rsw, resultMap);
+                layout.putRowMapper(resultMap, rowMapper);
+            } else {
+                layout.markNonFlat(resultMap);
+            }
+        }
+        return rowMapper;
+    }
+
+    private FlatRowMapper createFlatRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+        final FlatRowMapper rowMapper = new FlatRowMapper(configuration, resultMap.getType(), configuration.isUseCompiledRowMappers());
+        if (shouldApplyAutomaticMappings(resultMap, false)) {
+            final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultMap.getType()));
+            for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+                rowMapper.add(mapping.columnIndex, mapping.property, mapping.typeHandler, mapping.primitive);
+            }
+        }
+        final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, null);
+        final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+        for (int i = 0; i < propertyMappings.size(); i++) {
+            final ResultMapping propertyMapping = propertyMappings.get(i);
+            if (propertyMapping.getProperty() != null && columnIndexes[i] > 0) {
+                rowMapper.add(columnIndexes[i], propertyMapping.getProperty(), propertyMapping.getTypeHandler(), null);
+            }
+        }
+        return rowMapper;
+    }
+
     private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
         if (parentMapping != null) {
             linkToParents(rs, parentMapping, rowValue);
@@ -351,6 +678,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+        if (columnPrefix == null && configuration.isUseCompiledRowMappers()) {
+            final FlatRowMapper rowMapper = getFlatRowMapper(rsw, resultMap);
+            if (rowMapper != null) {
+                return rowMapper.mapRow(rsw.getResultSet());
+            }
+        }
         final ResultLoaderMap lazyLoader = new ResultLoaderMap();
         Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
         if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -366,7 +699,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return rowValue;
     }
 
-    private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+    private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
         final String resultMapId = resultMap.getId();
         Object rowValue = partialObject;
         if (rowValue != null) {
@@ -390,7 +723,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 foundValues = lazyLoader.size() > 0 || foundValues;
                 rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
             }
-            if (combinedKey != CacheKey.NULL_CACHE_KEY) {
+            if (combinedKey != RowKey.NULL_ROW_KEY) {
                 nestedResultObjects.put(combinedKey, rowValue);
             }
         }
@@ -423,19 +756,20 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
             throws SQLException {
-        final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, columnPrefix);
         boolean foundValues = false;
         final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-        for (ResultMapping propertyMapping : propertyMappings) {
-            String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+        for (int i = 0; i < propertyMappings.size(); i++) {
+            final ResultMapping propertyMapping = propertyMappings.get(i);
+            int columnIndex = columnIndexes[i];
             if (propertyMapping.getNestedResultMapId() != null) {
                 // the user added a column attribute to a nested result map, ignore it
-                column = null;
+                columnIndex = 0;
             }
             if (propertyMapping.isCompositeResult()
-                    || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+                    || columnIndex > 0
                     || propertyMapping.getResultSet() != null) {
-                Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+                Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix, columnIndex);
                 // issue #541 make property optional
                 final String property = propertyMapping.getProperty();
                 if (property == null) {
@@ -449,24 +783,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 }
                 if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
                     // gcode issue #377, call setter on nulls (value is not 'found')
-                    metaObject.setValue(property, value);
+                    metaObject.setValue(propertyMapping.getPropertyPath(), value);
                 }
             }
         }
         return foundValues;
     }
 
-    private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-            throws SQLException {
+    private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+                                           int columnIndex) throws SQLException {
         if (propertyMapping.getNestedQueryId() != null) {
             return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
         } else if (propertyMapping.getResultSet() != null) {
             addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
             return DEFERRED;
         } else {
-            final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
-            final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-            return typeHandler.getResult(rs, column);
+            return propertyMapping.getTypeHandler().getResult(rs, columnIndex);
         }
     }
 
@@ -475,10 +807,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     //
 
     private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
-        final String mapKey = resultMap.getId() + ":" + columnPrefix;
-        List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
+        final ResultSetLayout layout = rsw.getLayout();
+        List<UnMappedColumnAutoMapping> autoMapping = layout.getAutoMappings(resultMap, columnPrefix);
+        if (autoMapping != null && layout.hasUnknownColumns(resultMap, columnPrefix)
+                && configuration.getAutoMappingUnknownColumnBehavior() != AutoMappingUnknownColumnBehavior.NONE) {
+            // rebuild the plan so that the unknown column behavior applies to every query
+            autoMapping = null;
+        }
         if (autoMapping == null) {
             autoMapping = new ArrayList<>();
+            boolean unknownColumns = false;
             final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
             for (String columnName : unmappedColumnNames) {
                 String propertyName = columnName;
@@ -499,17 +837,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                     final Class<?> propertyType = metaObject.getSetterType(property);
                     if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
                         final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-                        autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+                        autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler, propertyType.isPrimitive()));
                     } else {
+                        unknownColumns = true;
                         configuration.getAutoMappingUnknownColumnBehavior()
                                 .doAction(mappedStatement, columnName, property, propertyType);
                     }
                 } else {
+                    unknownColumns = true;
                     configuration.getAutoMappingUnknownColumnBehavior()
                             .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
                 }
             }
-            autoMappingsCache.put(mapKey, autoMapping);
+            layout.putAutoMappings(resultMap, columnPrefix, autoMapping, unknownColumns);
         }
         return autoMapping;
     }
@@ -519,13 +859,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         boolean foundValues = false;
         if (!autoMapping.isEmpty()) {
             for (UnMappedColumnAutoMapping mapping : autoMapping) {
-                final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+                final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex);
                 if (value != null) {
                     foundValues = true;
                 }
                 if (value != null || (configuration.isCallSettersOnNulls() && !mapping.primitive)) {
                     // gcode issue #377, call setter on nulls (value is not 'found')
-                    metaObject.setValue(mapping.property, value);
+                    metaObject.setValue(mapping.propertyPath, value);
                 }
             }
         }
@@ -608,11 +948,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (hasTypeHandlerForResultObject(rsw, resultType)) {
             return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
         } else if (!constructorMappings.isEmpty()) {
-            return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+            return createParameterizedResultObject(rsw, resultMap, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
         } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
             return objectFactory.create(resultType);
         } else if (shouldApplyAutomaticMappings(resultMap, false)) {
-            return createByConstructorSignature(rsw, resultType, constructorArgTypes, constructorArgs);
+            return createByConstructorSignature(rsw, resultMap, constructorArgTypes, constructorArgs);
         }
         throw new ExecutorException("Do not know how to create an instance of " + resultType);
     }
@@ -623,6 +963,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
                                            List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
+        return createParameterizedResultObject(rsw, null, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+    }
+
+    private Object createParameterizedResultObject(ResultSetWrapper rsw, ResultMap resultMap, Class<?> resultType, List<ResultMapping> constructorMappings,
+                                                   List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
         boolean foundValues = false;
         for (ResultMapping constructorMapping : constructorMappings) {
             final Class<?> parameterType = constructorMapping.getJavaType();
@@ -632,8 +977,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 if (constructorMapping.getNestedQueryId() != null) {
                     value = getNestedQueryConstructorValue(rsw.getResultSet(), constructorMapping, columnPrefix);
                 } else if (constructorMapping.getNestedResultMapId() != null) {
-                    final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
-                    value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
+                    final ResultMap nestedResultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
+                    value = getRowValue(rsw, nestedResultMap, getColumnPrefix(columnPrefix, constructorMapping));
                 } else {
                     final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
                     value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
@@ -645,36 +990,72 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             constructorArgs.add(value);
             foundValues = value != null || foundValues;
         }
-        return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+        if (!foundValues) {
+            return null;
+        }
+        final ResultObjectConstructor constructor = resultMap != null ? getParameterizedConstructor(rsw, resultMap, constructorArgTypes) : null;
+        return constructor != null ? constructor.newInstance(objectFactory, constructorArgTypes, constructorArgs)
+                : objectFactory.create(resultType, constructorArgTypes, constructorArgs);
+    }
+
+    private ResultObjectConstructor getParameterizedConstructor(ResultSetWrapper rsw, ResultMap resultMap, List<Class<?>> constructorArgTypes) {
+        final ResultSetLayout layout = rsw.getLayout();
+        ResultObjectConstructor constructor = layout.getConstructor(resultMap);
+        if (constructor == null) {
+            constructor = ResultObjectConstructor.forArgTypes(resultMap.getType(), constructorArgTypes, objectFactory);
+            if (constructor == null) {
+                // let the object factory report the missing constructor
+                return null;
+            }
+            layout.putConstructor(resultMap, constructor);
+        }
+        return constructor;
+    }
+
+    private Object createByConstructorSignature(ResultSetWrapper rsw, ResultMap resultMap, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws SQLException {
+        final ResultSetLayout layout = rsw.getLayout();
+        ResultObjectConstructor constructor = layout.getConstructor(resultMap);
+        if (constructor == null) {
+            constructor = resolveConstructorBySignature(rsw, resultMap.getType());
+            layout.putConstructor(resultMap, constructor);
+        }
+        return createUsingConstructor(rsw, constructorArgTypes, constructorArgs, constructor);
     }
 
-    private Object createByConstructorSignature(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws SQLException {
+    private ResultObjectConstructor resolveConstructorBySignature(ResultSetWrapper rsw, Class<?> resultType) {
         final Constructor<?>[] constructors = resultType.getDeclaredConstructors();
         final Constructor<?> defaultConstructor = findDefaultConstructor(constructors);
         if (defaultConstructor != null) {
-            return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, defaultConstructor);
+            return bindConstructorToColumns(rsw, resultType, defaultConstructor);
         } else {
             for (Constructor<?> constructor : constructors) {
                 if (allowedConstructorUsingTypeHandlers(constructor, rsw.getJdbcTypes())) {
-                    return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, constructor);
+                    return bindConstructorToColumns(rsw, resultType, constructor);
                 }
             }
         }
         throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
     }
 
-    private Object createUsingConstructor(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, Constructor<?> constructor) throws SQLException {
+    private ResultObjectConstructor bindConstructorToColumns(ResultSetWrapper rsw, Class<?> resultType, Constructor<?> constructor) {
+        final Class<?>[] parameterTypes = constructor.getParameterTypes();
+        final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            typeHandlers[i] = rsw.getTypeHandler(parameterTypes[i], rsw.getColumnNames().get(i));
+        }
+        return ResultObjectConstructor.forColumns(resultType, constructor, typeHandlers, objectFactory);
+    }
+
+    private Object createUsingConstructor(ResultSetWrapper rsw, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, ResultObjectConstructor constructor) throws SQLException {
         boolean foundValues = false;
-        for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-            Class<?> parameterType = constructor.getParameterTypes()[i];
-            String columnName = rsw.getColumnNames().get(i);
-            TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-            Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
-            constructorArgTypes.add(parameterType);
+        final List<Class<?>> parameterTypes = constructor.getParameterTypes();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            Object value = constructor.getTypeHandler(i).getResult(rsw.getResultSet(), i + 1);
+            constructorArgTypes.add(parameterTypes.get(i));
             constructorArgs.add(value);
             foundValues = value != null || foundValues;
         }
-        return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+        return foundValues ? constructor.newInstance(objectFactory, constructorArgTypes, constructorArgs) : null;
     }
 
     private Constructor<?> findDefaultConstructor(final Constructor<?>[] constructors) {
@@ -714,7 +1095,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             columnName = rsw.getColumnNames().get(0);
         }
         final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-        return typeHandler.getResult(rsw.getResultSet(), columnName);
+        final int columnIndex = rsw.getColumnIndex(columnName);
+        return columnIndex > 0 ? typeHandler.getResult(rsw.getResultSet(), columnIndex) : typeHandler.getResult(rsw.getResultSet(), columnName);
     }
 
     private Object getNestedQueryConstructorValue(ResultSet rs, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
@@ -847,17 +1229,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return prefix + columnName;
     }
 
-    private void handleRowValuesForNestedResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
+    private void handleRowValuesForNestedResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping, boolean resultOrdered) throws SQLException {
         final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
         ResultSet resultSet = rsw.getResultSet();
         skipRows(resultSet, rowBounds);
         Object rowValue = previousRowValue;
         while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
             final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-            final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+            final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
             Object partialObject = nestedResultObjects.get(rowKey);
             // issue #577 && #542
-            if (mappedStatement.isResultOrdered()) {
+            if (resultOrdered) {
                 if (partialObject == null && rowValue != null) {
                     nestedResultObjects.clear();
                     storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -870,7 +1252,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 }
             }
         }
-        if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+        if (rowValue != null && resultOrdered && shouldProcessMoreRows(resultContext, rowBounds)) {
+            // 结果集已读完, 最后一个父对象也已完整, 游标不会再调用 cleanUpAfterHandlingResultSet(), 这里就释放它
+            nestedResultObjects.clear();
             storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
             previousRowValue = null;
         } else if (rowValue != null) {
@@ -878,7 +1262,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
     }
 
-    private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+    private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
         boolean foundValues = false;
         for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
             final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -897,8 +1281,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                             continue;
                         }
                     }
-                    final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-                    final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+                    final RowKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
+                    final RowKey combinedKey = RowKey.combine(rowKey, parentRowKey);
                     Object rowValue = nestedResultObjects.get(combinedKey);
                     boolean knownValue = rowValue != null;
                     instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -963,37 +1347,26 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return resolveDiscriminatedResultMap(rs, nestedResultMap, columnPrefix);
     }
 
-    private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-        final CacheKey cacheKey = new CacheKey();
-        cacheKey.update(resultMap.getId());
-        List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
+    private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+        final ResultSet rs = rsw.getResultSet();
+        final int[] columnIndexes = getRowKeyColumnIndexes(resultMap, rsw, columnPrefix);
+        final Object[] values = new Object[columnIndexes.length];
+        boolean keyed = false;
+        final List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
         if (resultMappings.isEmpty()) {
-            if (Map.class.isAssignableFrom(resultMap.getType())) {
-                createRowKeyForMap(rsw, cacheKey);
-            } else {
-                createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+            for (int i = 0; i < columnIndexes.length; i++) {
+                values[i] = rs.getString(columnIndexes[i]);
+                keyed = keyed || values[i] != null;
             }
         } else {
-            createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
-        }
-        if (cacheKey.getUpdateCount() < 2) {
-            return CacheKey.NULL_CACHE_KEY;
-        }
-        return cacheKey;
-    }
-
-    private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-        if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-            CacheKey combinedKey;
-            try {
-                combinedKey = rowKey.clone();
-            } catch (CloneNotSupportedException e) {
-                throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
+            for (int i = 0; i < columnIndexes.length; i++) {
+                if (columnIndexes[i] > 0) {
+                    values[i] = resultMappings.get(i).getTypeHandler().getResult(rs, columnIndexes[i]);
+                    keyed = keyed || values[i] != null || configuration.isReturnInstanceForEmptyRow();
+                }
             }
-            combinedKey.update(parentRowKey);
-            return combinedKey;
         }
-        return CacheKey.NULL_CACHE_KEY;
+        return keyed ? new RowKey(resultMap.getId(), columnPrefix, values) : RowKey.NULL_ROW_KEY;
     }
 
     //
@@ -1008,27 +1381,48 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return resultMappings;
     }
 
-    private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
-        for (ResultMapping resultMapping : resultMappings) {
+    /**
+     * Gets the indexes of the columns identifying rows of a result map: one per id (or property) mapping, 0 for
+     * mappings that are not simple or whose column is missing, or else the columns of auto-mapped properties.
+     */
+    private int[] getRowKeyColumnIndexes(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+        final ResultSetLayout layout = rsw.getLayout();
+        int[] columnIndexes = layout.getRowKeyColumnIndexes(resultMap, columnPrefix);
+        if (columnIndexes == null) {
+            final List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
+            if (resultMappings.isEmpty()) {
+                if (Map.class.isAssignableFrom(resultMap.getType())) {
+                    columnIndexes = getRowKeyColumnIndexesForMap(rsw);
+                } else {
+                    columnIndexes = getRowKeyColumnIndexesForUnmappedProperties(resultMap, rsw, columnPrefix);
+                }
+            } else {
+                columnIndexes = getRowKeyColumnIndexesForMappedProperties(rsw, resultMappings, columnPrefix);
+            }
+            layout.putRowKeyColumnIndexes(resultMap, columnPrefix, columnIndexes);
+        }
+        return columnIndexes;
+    }
+
+    private int[] getRowKeyColumnIndexesForMappedProperties(ResultSetWrapper rsw, List<ResultMapping> resultMappings, String columnPrefix) {
+        final int[] columnIndexes = new int[resultMappings.size()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            final ResultMapping resultMapping = resultMappings.get(i);
             if (resultMapping.isSimple()) {
                 final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-                final TypeHandler<?> th = resultMapping.getTypeHandler();
-                List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
                 // Issue #114
-                if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-                    final Object value = th.getResult(rsw.getResultSet(), column);
-                    if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-                        cacheKey.update(column);
-                        cacheKey.update(value);
-                    }
+                if (column != null) {
+                    columnIndexes[i] = rsw.getColumnIndex(column);
                 }
             }
         }
+        return columnIndexes;
     }
 
-    private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+    private int[] getRowKeyColumnIndexesForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
         final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
-        List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+        final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+        final List<Integer> columnIndexes = new ArrayList<>();
         for (String column : unmappedColumnNames) {
             String property = column;
             if (columnPrefix != null && !columnPrefix.isEmpty()) {
@@ -1040,24 +1434,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 }
             }
             if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-                String value = rsw.getResultSet().getString(column);
-                if (value != null) {
-                    cacheKey.update(column);
-                    cacheKey.update(value);
-                }
+                columnIndexes.add(rsw.getColumnIndex(column));
             }
         }
+        return columnIndexes.stream().mapToInt(Integer::intValue).toArray();
     }
 
-    private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
-        List<String> columnNames = rsw.getColumnNames();
-        for (String columnName : columnNames) {
-            final String value = rsw.getResultSet().getString(columnName);
-            if (value != null) {
-                cacheKey.update(columnName);
-                cacheKey.update(value);
-            }
+    private int[] getRowKeyColumnIndexesForMap(ResultSetWrapper rsw) {
+        final int[] columnIndexes = new int[rsw.getColumnNames().size()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = i + 1;
         }
+        return columnIndexes;
     }
 
     private void linkObjects(MetaObject metaObject, ResultMapping resultMapping, Object rowValue) {
@@ -1066,13 +1454,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             final MetaObject targetMetaObject = configuration.newMetaObject(collectionProperty);
             targetMetaObject.add(rowValue);
         } else {
-            metaObject.setValue(resultMapping.getProperty(), rowValue);
+            metaObject.setValue(resultMapping.getPropertyPath(), rowValue);
         }
     }
 
     private Object instantiateCollectionPropertyIfAppropriate(ResultMapping resultMapping, MetaObject metaObject) {
         final String propertyName = resultMapping.getProperty();
-        Object propertyValue = metaObject.getValue(propertyName);
+        Object propertyValue = metaObject.getValue(resultMapping.getPropertyPath());
         if (propertyValue == null) {
             Class<?> type = resultMapping.getJavaType();
             if (type == null) {
@@ -1081,7 +1469,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             try {
                 if (objectFactory.isCollection(type)) {
                     propertyValue = objectFactory.create(type);
-                    metaObject.setValue(propertyName, propertyValue);
+                    metaObject.setValue(resultMapping.getPropertyPath(), propertyValue);
                     return propertyValue;
                 }
             } catch (Exception e) {
@@ -1105,18 +1493,4 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         public ResultMapping propertyMapping;
     }
 
-    private static class UnMappedColumnAutoMapping {
-        private final String column;
-        private final String property;
-        private final TypeHandler<?> typeHandler;
-        private final boolean primitive;
-
-        public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
-            this.column = column;
-            this.property = property;
-            this.typeHandler = typeHandler;
-            this.primitive = primitive;
-        }
-    }
-
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps the rows of a flat result map: a result map without nested result maps, nested selects or constructor
+ * mappings, whose result objects are created by the object factory and filled through their setters.
+ * <p>
+ * A mapper is built once per result map and column layout and reads the columns by index. When compiled, the result
+ * object constructor and the setters of simple properties are bound to generated {@link Supplier} and
+ * {@link BiConsumer} implementations through {@link LambdaMetafactory}; every part that cannot be bound this way
+ * (custom object factories or wrappers, maps, nested property paths, non public members...) goes through
+ * {@link MetaObject} as usual. Columns read by a built-in {@link PrimitiveTypeHandler#of(TypeHandler) primitive type
+ * handler} and whose setter takes the same primitive type are read and set without boxing when the row is mapped straight from the result set. Once
+ * built, a mapper is immutable and {@link #mapRow(Object[])} may run on any thread.
+ *
+ * @since 3.5.6
+ */
+public class FlatRowMapper {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Configuration configuration;
+    private final ObjectFactory objectFactory;
+    private final Class<?> type;
+    private final boolean compiled;
+    private final Supplier<Object> constructor;
+    private final List<Integer> columnIndexes = new ArrayList<>();
+    private final List<TypeHandler<?>> typeHandlers = new ArrayList<>();
+    private final List<String> properties = new ArrayList<>();
+    // null when the setter type has to be looked up, as done for explicit property mappings
+    private final List<Boolean> primitives = new ArrayList<>();
+    // null when the property is set through a MetaObject
+    private final List<BiConsumer<Object, Object>> setters = new ArrayList<>();
+    // ObjIntConsumer, ObjLongConsumer or ObjDoubleConsumer, null when the value is read boxed
+    private final List<Object> primitiveSetters = new ArrayList<>();
+    private boolean usesMetaObject;
+    private boolean usesPrimitiveSetters;
+
+    FlatRowMapper(Configuration configuration, Class<?> type, boolean compiled) {
+        this.configuration = configuration;
+        this.objectFactory = configuration.getObjectFactory();
+        this.type = type;
+        this.compiled = compiled && isCompilable(configuration, type);
+        this.constructor = this.compiled ? compileConstructor(type) : null;
+    }
+
+    void add(int columnIndex, String property, TypeHandler<?> typeHandler, Boolean primitive) {
+        columnIndexes.add(columnIndex);
+        typeHandlers.add(typeHandler);
+        properties.add(property);
+        primitives.add(primitive);
+        final Reflector reflector = compiled ? configuration.getReflectorFactory().findForClass(type) : null;
+        final BiConsumer<Object, Object> setter = compiled ? compileSetter(reflector, property) : null;
+        final PrimitiveTypeHandler primitiveTypeHandler = PrimitiveTypeHandler.of(typeHandler);
+        final Object primitiveSetter = setter != null && primitiveTypeHandler != null
+                ? compilePrimitiveSetter(reflector, property, primitiveTypeHandler.getPrimitiveType()) : null;
+        setters.add(setter);
+        primitiveSetters.add(primitiveSetter);
+        usesMetaObject = usesMetaObject || setter == null;
+        usesPrimitiveSetters = usesPrimitiveSetters || primitiveSetter != null;
+    }
+
+    Object[] readValues(ResultSet rs) throws SQLException {
+        final Object[] values = new Object[columnIndexes.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = typeHandlers.get(i).getResult(rs, columnIndexes.get(i));
+        }
+        return values;
+    }
+
+    Object mapRow(ResultSet rs) throws SQLException {
+        if (!usesPrimitiveSetters) {
+            return mapRow(readValues(rs));
+        }
+        final Object rowValue = constructor != null ? constructor.get() : objectFactory.create(type);
+        final MetaObject metaObject = usesMetaObject || configuration.isCallSettersOnNulls() ? configuration.newMetaObject(rowValue) : null;
+        boolean foundValues = false;
+        for (int i = 0; i < columnIndexes.size(); i++) {
+            final Object primitiveSetter = primitiveSetters.get(i);
+            if (primitiveSetter != null) {
+                foundValues |= setPrimitiveValue(rs, rowValue, i, primitiveSetter);
+            } else {
+                foundValues |= setValue(rowValue, metaObject, i, typeHandlers.get(i).getResult(rs, columnIndexes.get(i)));
+            }
+        }
+        return foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+    }
+
+    Object mapRow(Object[] values) {
+        final Object rowValue = constructor != null ? constructor.get() : objectFactory.create(type);
+        final MetaObject metaObject = usesMetaObject || configuration.isCallSettersOnNulls() ? configuration.newMetaObject(rowValue) : null;
+        boolean foundValues = false;
+        for (int i = 0; i < values.length; i++) {
+            foundValues |= setValue(rowValue, metaObject, i, values[i]);
+        }
+        return foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+    }
+
+    private boolean setValue(Object rowValue, MetaObject metaObject, int index, Object value) {
+        if (value != null || (configuration.isCallSettersOnNulls() && !isPrimitive(metaObject, index))) {
+            // gcode issue #377, call setter on nulls (value is not 'found')
+            final BiConsumer<Object, Object> setter = setters.get(index);
+            if (setter != null) {
+                setter.accept(rowValue, value);
+            } else {
+                metaObject.setValue(properties.get(index), value);
+            }
+        }
+        return value != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean setPrimitiveValue(ResultSet rs, Object rowValue, int index, Object setter) throws SQLException {
+        // a null column leaves the primitive property untouched, as setters are never called with null primitives
+        final PrimitiveTypeHandler typeHandler = (PrimitiveTypeHandler) typeHandlers.get(index);
+        final int columnIndex = columnIndexes.get(index);
+        if (setter instanceof ObjIntConsumer) {
+            final int value = typeHandler.getInt(rs, columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            ((ObjIntConsumer<Object>) setter).accept(rowValue, value);
+        } else if (setter instanceof ObjLongConsumer) {
+            final long value = typeHandler.getLong(rs, columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            ((ObjLongConsumer<Object>) setter).accept(rowValue, value);
+        } else {
+            final double value = typeHandler.getDouble(rs, columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            ((ObjDoubleConsumer<Object>) setter).accept(rowValue, value);
+        }
+        return true;
+    }
+
+    private boolean isPrimitive(MetaObject metaObject, int index) {
+        final Boolean primitive = primitives.get(index);
+        return primitive != null ? primitive : metaObject.getSetterType(properties.get(index)).isPrimitive();
+    }
+
+    private static boolean isCompilable(Configuration configuration, Class<?> type) {
+        return configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory
+                && !Map.class.isAssignableFrom(type) && !type.isInterface() && isAccessible(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<Object> compileConstructor(Class<?> type) {
+        if (objectFactory.getClass() != DefaultObjectFactory.class || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), constructor, MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> compileSetter(Reflector reflector, String property) {
+        if (!reflector.hasSetter(property) || !(reflector.getSetInvoker(property) instanceof MethodInvoker)
+                || reflector.getSetInvoker(property) instanceof AmbiguousMethodInvoker) {
+            return null;
+        }
+        final Method setter = findSetter(reflector.getType(), property, reflector.getSetterType(property));
+        if (setter == null) {
+            return null;
+        }
+        try {
+            final Class<?> parameterType = setter.getParameterTypes()[0];
+            MethodHandle handle = LOOKUP.unreflect(setter);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, reflector.getType(), MethodType.methodType(parameterType).wrap().returnType()));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static Object compilePrimitiveSetter(Reflector reflector, String property, Class<?> primitiveType) {
+        final Class<?> consumerType;
+        if (primitiveType == int.class) {
+            consumerType = ObjIntConsumer.class;
+        } else if (primitiveType == long.class) {
+            consumerType = ObjLongConsumer.class;
+        } else if (primitiveType == double.class) {
+            consumerType = ObjDoubleConsumer.class;
+        } else {
+            return null;
+        }
+        final Method setter = findSetter(reflector.getType(), property, reflector.getSetterType(property));
+        if (setter == null || setter.getParameterTypes()[0] != primitiveType) {
+            return null;
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(setter);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(consumerType),
+                    MethodType.methodType(void.class, Object.class, primitiveType), handle,
+                    MethodType.methodType(void.class, reflector.getType(), primitiveType));
+            return site.getTarget().invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static Method findSetter(Class<?> type, String property, Class<?> setterType) {
+        Method found = null;
+        for (Method method : type.getMethods()) {
+            if (method.getParameterCount() == 1 && !method.isBridge() && !Modifier.isStatic(method.getModifiers())
+                    && PropertyNamer.isSetter(method.getName()) && property.equals(PropertyNamer.methodToProperty(method.getName()))
+                    && method.getParameterTypes()[0].isAssignableFrom(setterType)) {
+                if (found != null) {
+                    return null;
+                }
+                found = method;
+            }
+        }
+        return found != null && isAccessible(found.getDeclaringClass()) && isAccessible(found.getParameterTypes()[0]) ? found : null;
+    }
+
+    /**
+     * Generated classes are defined next to this class and refer to the types they use by name, so those types must
+     * be public and visible from the class loader of MyBatis.
+     */
+    private static boolean isAccessible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, FlatRowMapper.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tells whether the rows of a query are grouped by a set of columns, judging from the top level ORDER BY clause of its
+ * SQL: the leading sort keys must be exactly these columns, in any order.
+ * <p>
+ * A sort key designates a column when it is the column label itself, the expression selected under that label, or its
+ * position in the select list. Anything else, such as expressions or qualified names that the select list does not
+ * show as the column, makes the detection fail, so a positive answer can be trusted.
+ *
+ * @since 3.5.6
+ */
+final class OrderedResultDetector {
+
+    private static final Set<String> CLAUSE_ENDS = new HashSet<>(Arrays.asList(
+            "LIMIT", "OFFSET", "FETCH", "FOR", "ROWS", "UNION", "INTERSECT", "EXCEPT", "MINUS"));
+
+    private OrderedResultDetector() {
+        // Prevent Instantiation of Static Class
+    }
+
+    /**
+     * Returns whether the rows are ordered by the given columns first.
+     *
+     * @param sql
+     *          the SQL of the query
+     * @param columnLabels
+     *          the column labels of the result set
+     * @param columns
+     *          the grouping columns
+     * @return true when the leading sort keys are exactly the grouping columns
+     */
+    static boolean isOrderedBy(String sql, List<String> columnLabels, Set<String> columns) {
+        if (sql == null || columns.isEmpty()) {
+            return false;
+        }
+        final List<String> tokens = tokenize(sql);
+        final int orderBy = lastOrderBy(tokens);
+        if (orderBy < 0) {
+            return false;
+        }
+        final Map<String, String> aliases = selectAliases(tokens);
+        final Set<String> remaining = new HashSet<>();
+        for (String column : columns) {
+            remaining.add(column.toUpperCase(Locale.ENGLISH));
+        }
+        final List<String> sortKey = new ArrayList<>();
+        for (int i = orderBy + 2; i <= tokens.size() && !remaining.isEmpty(); i++) {
+            final String token = i < tokens.size() ? tokens.get(i) : null;
+            if (token != null && isPunctuation(token) && !",".equals(token)) {
+                // 排序键中出现运算符、括号等无法识别的符号时, 不能确定排序列
+                return false;
+            }
+            if (token == null || ",".equals(token) || CLAUSE_ENDS.contains(token)) {
+                final String column = resolveColumn(sortKey, columnLabels, aliases);
+                if (column == null || !remaining.remove(column)) {
+                    return false;
+                }
+                if (!",".equals(token)) {
+                    break;
+                }
+                sortKey.clear();
+            } else {
+                sortKey.add(token);
+            }
+        }
+        return remaining.isEmpty();
+    }
+
+    private static String resolveColumn(List<String> sortKey, List<String> columnLabels, Map<String, String> aliases) {
+        int length = sortKey.size();
+        if (length >= 2 && "NULLS".equals(sortKey.get(length - 2))) {
+            length -= 2;
+        }
+        if (length >= 2 && ("ASC".equals(sortKey.get(length - 1)) || "DESC".equals(sortKey.get(length - 1)))) {
+            length--;
+        }
+        if (length != 1) {
+            return null;
+        }
+        final String expression = sortKey.get(0);
+        if (isNumber(expression)) {
+            final int position = Integer.parseInt(expression);
+            return position > 0 && position <= columnLabels.size() ? columnLabels.get(position - 1).toUpperCase(Locale.ENGLISH) : null;
+        }
+        if (expression.indexOf('.') < 0) {
+            // output columns take precedence over the columns of the tables
+            for (String columnLabel : columnLabels) {
+                if (columnLabel.equalsIgnoreCase(expression)) {
+                    return expression;
+                }
+            }
+        }
+        return aliases.get(expression);
+    }
+
+    /**
+     * Maps each expression of the top level select list to the column it produces, when that column is explicit: an
+     * alias, or the last part of a qualified name.
+     */
+    private static Map<String, String> selectAliases(List<String> tokens) {
+        final Map<String, String> aliases = new HashMap<>();
+        final int select = tokens.indexOf("SELECT");
+        if (select < 0) {
+            return aliases;
+        }
+        final List<String> item = new ArrayList<>();
+        int start = select + 1;
+        if (start < tokens.size() && ("DISTINCT".equals(tokens.get(start)) || "ALL".equals(tokens.get(start)))) {
+            start++;
+        }
+        for (int i = start; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            if (",".equals(token) || "FROM".equals(token)) {
+                addAlias(item, aliases);
+                if ("FROM".equals(token)) {
+                    break;
+                }
+                item.clear();
+            } else {
+                item.add(token);
+            }
+        }
+        return aliases;
+    }
+
+    private static void addAlias(List<String> item, Map<String, String> aliases) {
+        if (item.size() == 1 && item.get(0).indexOf('.') > 0) {
+            final String expression = item.get(0);
+            aliases.put(expression, expression.substring(expression.lastIndexOf('.') + 1));
+        } else if (item.size() == 2 && isIdentifier(item.get(0)) && isIdentifier(item.get(1))) {
+            aliases.put(item.get(0), item.get(1));
+        } else if (item.size() == 3 && "AS".equals(item.get(1)) && isIdentifier(item.get(0)) && isIdentifier(item.get(2))) {
+            aliases.put(item.get(0), item.get(2));
+        }
+    }
+
+    private static int lastOrderBy(List<String> tokens) {
+        for (int i = tokens.size() - 2; i >= 0; i--) {
+            if ("ORDER".equals(tokens.get(i)) && "BY".equals(tokens.get(i + 1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits the SQL into upper case words, qualified names, commas and other punctuation, leaving out comments, string
+     * literals and everything within parentheses, which stands for a single "(" token.
+     */
+    private static List<String> tokenize(String sql) {
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder word = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            final char next = i + 1 < sql.length() ? sql.charAt(i + 1) : 0;
+            if (c == '-' && next == '-') {
+                final int end = sql.indexOf('\n', i + 2);
+                if (end < 0) {
+                    break;
+                }
+                flush(word, tokens);
+                i = end;
+            } else if (c == '/' && next == '*') {
+                final int end = sql.indexOf("*/", i + 2);
+                if (end < 0) {
+                    break;
+                }
+                flush(word, tokens);
+                i = end + 1;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                final int end = sql.indexOf(c, i + 1);
+                if (end < 0) {
+                    break;
+                }
+                if (depth == 0 && c != '\'') {
+                    word.append(sql, i + 1, end);
+                } else if (depth == 0) {
+                    word.append('\'');
+                }
+                i = end;
+            } else if (c == '(') {
+                if (depth++ == 0) {
+                    flush(word, tokens);
+                    tokens.add("(");
+                }
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (depth > 0) {
+                continue;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '.') {
+                word.append(c);
+            } else {
+                flush(word, tokens);
+                if (c == ',') {
+                    tokens.add(",");
+                } else if (!Character.isWhitespace(c)) {
+                    tokens.add(String.valueOf(c));
+                }
+            }
+        }
+        flush(word, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString().toUpperCase(Locale.ENGLISH));
+            word.setLength(0);
+        }
+    }
+
+    private static boolean isPunctuation(String token) {
+        final char c = token.charAt(0);
+        return token.length() == 1 && !Character.isLetterOrDigit(c) && c != '_' && c != '$' && c != '#';
+    }
+
+    private static boolean isNumber(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return !token.isEmpty();
+    }
+
+    private static boolean isIdentifier(String token) {
+        return !token.isEmpty() && (Character.isLetter(token.charAt(0)) || token.charAt(0) == '_');
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The constructor used to create the result objects of a result map, resolved once and invoked through a
+ * {@link MethodHandle} instead of being looked up by the object factory for every row.
+ * <p>
+ * The handle is only used with the {@link DefaultObjectFactory} itself, since other factories may create objects
+ * differently; they, and constructors that cannot be made accessible, get the constructor arguments as before.
+ *
+ * @since 3.5.6
+ */
+final class ResultObjectConstructor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<?> type;
+    private final List<Class<?>> parameterTypes;
+    private final TypeHandler<?>[] typeHandlers;
+    private final MethodHandle handle;
+
+    private ResultObjectConstructor(Class<?> type, Constructor<?> constructor, TypeHandler<?>[] typeHandlers, ObjectFactory objectFactory) {
+        this.type = type;
+        this.parameterTypes = Arrays.asList(constructor.getParameterTypes());
+        this.typeHandlers = typeHandlers;
+        this.handle = objectFactory.getClass() == DefaultObjectFactory.class ? spreadHandle(constructor) : null;
+    }
+
+    /**
+     * Resolves the constructor taking the given argument types.
+     *
+     * @return the constructor, or null if the type does not declare it
+     */
+    static ResultObjectConstructor forArgTypes(Class<?> type, List<Class<?>> argTypes, ObjectFactory objectFactory) {
+        if (type.isInterface()) {
+            return null;
+        }
+        try {
+            return new ResultObjectConstructor(type, type.getDeclaredConstructor(argTypes.toArray(new Class<?>[0])), null, objectFactory);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Binds a constructor whose arguments are read from the leading columns with the given type handlers.
+     */
+    static ResultObjectConstructor forColumns(Class<?> type, Constructor<?> constructor, TypeHandler<?>[] typeHandlers, ObjectFactory objectFactory) {
+        return new ResultObjectConstructor(type, constructor, typeHandlers, objectFactory);
+    }
+
+    private static MethodHandle spreadHandle(Constructor<?> constructor) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = LOOKUP.unreflectConstructor(constructor);
+            } catch (IllegalAccessException e) {
+                if (Reflector.canControlMemberAccessible()) {
+                    // 与 DefaultObjectFactory 一致, 允许时才放开 private 构造方法的访问权限
+                    constructor.setAccessible(true);
+                    handle = LOOKUP.unreflectConstructor(constructor);
+                } else {
+                    throw e;
+                }
+            }
+            return handle.asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    List<Class<?>> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    TypeHandler<?> getTypeHandler(int index) {
+        return typeHandlers[index];
+    }
+
+    Object newInstance(ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+        if (handle == null) {
+            return objectFactory.create(type, constructorArgTypes, constructorArgs);
+        }
+        try {
+            return handle.invokeExact(constructorArgs.toArray());
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            String argTypes = constructorArgTypes.stream().map(Class::getSimpleName).collect(Collectors.joining(","));
+            String argValues = constructorArgs.stream().map(String::valueOf).collect(Collectors.joining(","));
+            throw new ReflectionException("Error instantiating " + type + " with invalid types (" + argTypes + ") or values (" + argValues + "). Cause: " + e, e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The columns of a result set and the mapping plans derived from them: type handlers per column and property type,
+ * mapped and unmapped columns, column indexes and auto mappings per result map, row mappers.
+ * <p>
+ * Each {@link org.apache.ibatis.mapping.MappedStatement} keeps the last layout of each of its result sets, so repeated
+ * executions of a statement reuse the plans built by the first one as long as the result set still
+ * {@link #matches(ResultSetMetaData, boolean) matches} it. All methods are thread-safe.
+ *
+ * @since 3.5.6
+ */
+public class ResultSetLayout {
+
+    private final TypeHandlerRegistry typeHandlerRegistry;
+    private final List<String> columnNames;
+    private final List<String> classNames;
+    private final List<JdbcType> jdbcTypes;
+    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> mappedColumnNamesMap = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> unMappedColumnNamesMap = new ConcurrentHashMap<>();
+    private final Map<String, int[]> propertyColumnIndexesMap = new ConcurrentHashMap<>();
+    private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsMap = new ConcurrentHashMap<>();
+    private final Set<String> autoMappingsWithUnknownColumns = ConcurrentHashMap.newKeySet();
+    private final Map<String, int[]> rowKeyColumnIndexesMap = new ConcurrentHashMap<>();
+    private final Map<String, ResultObjectConstructor> constructors = new ConcurrentHashMap<>();
+    private final Map<String, FlatRowMapper> rowMappers = new ConcurrentHashMap<>();
+    private final Set<String> nonFlatResultMapIds = ConcurrentHashMap.newKeySet();
+
+    public ResultSetLayout(List<String> columnNames, List<String> classNames, List<JdbcType> jdbcTypes, TypeHandlerRegistry typeHandlerRegistry) {
+        this.typeHandlerRegistry = typeHandlerRegistry;
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.classNames = Collections.unmodifiableList(new ArrayList<>(classNames));
+        this.jdbcTypes = Collections.unmodifiableList(new ArrayList<>(jdbcTypes));
+    }
+
+    /**
+     * Checks whether a result set has the columns of this layout: same count, and same names, JDBC types and Java class
+     * names in the same order. Only the metadata is read, nothing is allocated.
+     *
+     * @param metaData
+     *          the metadata of the result set
+     * @param useColumnLabel
+     *          whether columns are named by their label
+     * @return true if the plans of this layout apply to the result set
+     * @throws SQLException
+     *           if the metadata cannot be read
+     */
+    public boolean matches(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+        final int columnCount = metaData.getColumnCount();
+        if (columnCount != columnNames.size()) {
+            return false;
+        }
+        for (int i = 0; i < columnCount; i++) {
+            final String columnName = useColumnLabel ? metaData.getColumnLabel(i + 1) : metaData.getColumnName(i + 1);
+            if (!columnNames.get(i).equals(columnName)
+                    || jdbcTypes.get(i) != JdbcType.forCode(metaData.getColumnType(i + 1))
+                    || !Objects.equals(classNames.get(i), metaData.getColumnClassName(i + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    public List<JdbcType> getJdbcTypes() {
+        return jdbcTypes;
+    }
+
+    public int getColumnIndex(String columnName) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    public JdbcType getJdbcType(String columnName) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+                return jdbcTypes.get(i);
+            }
+        }
+        return null;
+    }
+
+    public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+        Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
+        if (columnHandlers == null) {
+            columnHandlers = new ConcurrentHashMap<>();
+            Map<Class<?>, TypeHandler<?>> existing = typeHandlerMap.putIfAbsent(columnName, columnHandlers);
+            if (existing != null) {
+                columnHandlers = existing;
+            }
+        }
+        TypeHandler<?> handler = columnHandlers.get(propertyType);
+        if (handler == null) {
+            JdbcType jdbcType = getJdbcType(columnName);
+            handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
+            // Replicate logic of UnknownTypeHandler#resolveTypeHandler
+            // See issue #59 comment 10
+            if (handler == null || handler instanceof UnknownTypeHandler) {
+                final int index = columnNames.indexOf(columnName);
+                final Class<?> javaType = resolveClass(classNames.get(index));
+                if (javaType != null && jdbcType != null) {
+                    handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+                } else if (javaType != null) {
+                    handler = typeHandlerRegistry.getTypeHandler(javaType);
+                } else if (jdbcType != null) {
+                    handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+                }
+            }
+            if (handler == null || handler instanceof UnknownTypeHandler) {
+                handler = new ObjectTypeHandler();
+            }
+            columnHandlers.put(propertyType, handler);
+        }
+        return handler;
+    }
+
+    private Class<?> resolveClass(String className) {
+        try {
+            // #699 className could be null
+            if (className != null) {
+                return Resources.classForName(className);
+            }
+        } catch (ClassNotFoundException e) {
+            // ignore
+        }
+        return null;
+    }
+
+    private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+        List<String> mappedColumnNames = new ArrayList<>();
+        List<String> unmappedColumnNames = new ArrayList<>();
+        final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
+        final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
+        for (String columnName : columnNames) {
+            final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
+            if (mappedColumns.contains(upperColumnName)) {
+                mappedColumnNames.add(upperColumnName);
+            } else {
+                unmappedColumnNames.add(columnName);
+            }
+        }
+        mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), mappedColumnNames);
+        unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), unmappedColumnNames);
+    }
+
+    public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) {
+        List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+        if (mappedColumnNames == null) {
+            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+            mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+        }
+        return mappedColumnNames;
+    }
+
+    public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+        List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+        if (unMappedColumnNames == null) {
+            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+            unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+        }
+        return unMappedColumnNames;
+    }
+
+    public int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+        final String mapKey = getMapKey(resultMap, columnPrefix);
+        int[] columnIndexes = propertyColumnIndexesMap.get(mapKey);
+        if (columnIndexes == null) {
+            final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+            columnIndexes = new int[propertyMappings.size()];
+            for (int i = 0; i < columnIndexes.length; i++) {
+                final String column = propertyMappings.get(i).getColumn();
+                if (column != null) {
+                    columnIndexes[i] = getColumnIndex(columnPrefix == null ? column : columnPrefix + column);
+                }
+            }
+            propertyColumnIndexesMap.put(mapKey, columnIndexes);
+        }
+        return columnIndexes;
+    }
+
+    List<UnMappedColumnAutoMapping> getAutoMappings(ResultMap resultMap, String columnPrefix) {
+        return autoMappingsMap.get(getMapKey(resultMap, columnPrefix));
+    }
+
+    void putAutoMappings(ResultMap resultMap, String columnPrefix, List<UnMappedColumnAutoMapping> autoMappings, boolean unknownColumns) {
+        final String mapKey = getMapKey(resultMap, columnPrefix);
+        if (unknownColumns) {
+            autoMappingsWithUnknownColumns.add(mapKey);
+        }
+        autoMappingsMap.put(mapKey, Collections.unmodifiableList(autoMappings));
+    }
+
+    boolean hasUnknownColumns(ResultMap resultMap, String columnPrefix) {
+        return autoMappingsWithUnknownColumns.contains(getMapKey(resultMap, columnPrefix));
+    }
+
+    int[] getRowKeyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+        return rowKeyColumnIndexesMap.get(getMapKey(resultMap, columnPrefix));
+    }
+
+    void putRowKeyColumnIndexes(ResultMap resultMap, String columnPrefix, int[] columnIndexes) {
+        rowKeyColumnIndexesMap.put(getMapKey(resultMap, columnPrefix), columnIndexes);
+    }
+
+    ResultObjectConstructor getConstructor(ResultMap resultMap) {
+        return constructors.get(resultMap.getId());
+    }
+
+    void putConstructor(ResultMap resultMap, ResultObjectConstructor constructor) {
+        constructors.put(resultMap.getId(), constructor);
+    }
+
+    FlatRowMapper getRowMapper(ResultMap resultMap) {
+        return rowMappers.get(resultMap.getId());
+    }
+
+    void putRowMapper(ResultMap resultMap, FlatRowMapper rowMapper) {
+        rowMappers.put(resultMap.getId(), rowMapper);
+    }
+
+    boolean isNonFlat(ResultMap resultMap) {
+        return nonFlatResultMapIds.contains(resultMap.getId());
+    }
+
+    void markNonFlat(ResultMap resultMap) {
+        nonFlatResultMapIds.add(resultMap.getId());
+    }
+
+    private String getMapKey(ResultMap resultMap, String columnPrefix) {
+        return resultMap.getId() + ":" + columnPrefix;
+    }
+
+    private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
+        if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
+            return columnNames;
+        }
+        final Set<String> prefixed = new HashSet<>();
+        for (String columnName : columnNames) {
+            prefixed.add(prefix + columnName);
+        }
+        return prefixed;
+    }
+}
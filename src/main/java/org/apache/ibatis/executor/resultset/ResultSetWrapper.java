@@ -15,15 +15,17 @@
  */
 package org.apache.ibatis.executor.resultset;
 
-import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.type.*;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Iwao AVE!
@@ -31,50 +33,93 @@ import java.util.*;
 public class ResultSetWrapper {
 
     private final ResultSet resultSet;
-    private final TypeHandlerRegistry typeHandlerRegistry;
-    private final List<String> columnNames = new ArrayList<>();
-    private final List<String> classNames = new ArrayList<>();
-    private final List<JdbcType> jdbcTypes = new ArrayList<>();
-    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
-    private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
-    private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+    private final ResultSetLayout layout;
 
     public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
+        this(rs, configuration, null, 0);
+    }
+
+    /**
+     * Wraps a result set returned by a statement, reusing the layout kept by the statement for that position when the
+     * columns still match it.
+     *
+     * @param rs
+     *          the result set
+     * @param configuration
+     *          the configuration
+     * @param mappedStatement
+     *          the statement which returned the result set, or null to build a fresh layout
+     * @param resultSetIndex
+     *          the 0-based position of the result set among those returned by the statement
+     * @throws SQLException
+     *           if the metadata cannot be read
+     * @since 3.5.6
+     */
+    public ResultSetWrapper(ResultSet rs, Configuration configuration, MappedStatement mappedStatement, int resultSetIndex) throws SQLException {
         super();
-        this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
         this.resultSet = rs;
         final ResultSetMetaData metaData = rs.getMetaData();
+        final ResultSetLayout cachedLayout = mappedStatement == null ? null : mappedStatement.getResultSetLayout(resultSetIndex);
+        if (cachedLayout != null && cachedLayout.matches(metaData, configuration.isUseColumnLabel())) {
+            this.layout = cachedLayout;
+            return;
+        }
+        final List<String> columnNames = new ArrayList<>();
+        final List<String> classNames = new ArrayList<>();
+        final List<JdbcType> jdbcTypes = new ArrayList<>();
         final int columnCount = metaData.getColumnCount();
         for (int i = 1; i <= columnCount; i++) {
             columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
             jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
             classNames.add(metaData.getColumnClassName(i));
         }
+        this.layout = new ResultSetLayout(columnNames, classNames, jdbcTypes, configuration.getTypeHandlerRegistry());
+        if (mappedStatement != null) {
+            mappedStatement.setResultSetLayout(resultSetIndex, layout);
+        }
     }
 
     public ResultSet getResultSet() {
         return resultSet;
     }
 
+    /**
+     * Gets the column layout of this result set, shared with the later result sets of the statement having the same
+     * columns.
+     *
+     * @return the layout
+     * @since 3.5.6
+     */
+    public ResultSetLayout getLayout() {
+        return layout;
+    }
+
     public List<String> getColumnNames() {
-        return this.columnNames;
+        return layout.getColumnNames();
     }
 
     public List<String> getClassNames() {
-        return Collections.unmodifiableList(classNames);
+        return layout.getClassNames();
     }
 
     public List<JdbcType> getJdbcTypes() {
-        return jdbcTypes;
+        return layout.getJdbcTypes();
+    }
+
+    /**
+     * Gets the index of a column, as expected by the index based getters of {@link ResultSet}.
+     *
+     * @param columnName
+     *          the column name, compared ignoring case
+     * @return the 1-based index of the first column with that name, or 0 if there is none
+     * @since 3.5.6
+     */
+    public int getColumnIndex(String columnName) {
+        return layout.getColumnIndex(columnName);
     }
 
     public JdbcType getJdbcType(String columnName) {
-        for (int i = 0; i < columnNames.size(); i++) {
-            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-                return jdbcTypes.get(i);
-            }
-        }
-        return null;
+        return layout.getJdbcType(columnName);
     }
 
     /**
@@ -89,98 +134,30 @@ public class ResultSetWrapper {
      * @return the type handler
      */
     public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-        TypeHandler<?> handler = null;
-        Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-        if (columnHandlers == null) {
-            columnHandlers = new HashMap<>();
-            typeHandlerMap.put(columnName, columnHandlers);
-        } else {
-            handler = columnHandlers.get(propertyType);
-        }
-        if (handler == null) {
-            JdbcType jdbcType = getJdbcType(columnName);
-            handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
-            // Replicate logic of UnknownTypeHandler#resolveTypeHandler
-            // See issue #59 comment 10
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                final int index = columnNames.indexOf(columnName);
-                final Class<?> javaType = resolveClass(classNames.get(index));
-                if (javaType != null && jdbcType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-                } else if (javaType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType);
-                } else if (jdbcType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-                }
-            }
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                handler = new ObjectTypeHandler();
-            }
-            columnHandlers.put(propertyType, handler);
-        }
-        return handler;
-    }
-
-    private Class<?> resolveClass(String className) {
-        try {
-            // #699 className could be null
-            if (className != null) {
-                return Resources.classForName(className);
-            }
-        } catch (ClassNotFoundException e) {
-            // ignore
-        }
-        return null;
-    }
-
-    private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-        List<String> mappedColumnNames = new ArrayList<>();
-        List<String> unmappedColumnNames = new ArrayList<>();
-        final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
-        final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
-        for (String columnName : columnNames) {
-            final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
-            if (mappedColumns.contains(upperColumnName)) {
-                mappedColumnNames.add(upperColumnName);
-            } else {
-                unmappedColumnNames.add(columnName);
-            }
-        }
-        mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), mappedColumnNames);
-        unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), unmappedColumnNames);
+        return layout.getTypeHandler(propertyType, columnName);
     }
 
     public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-        List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        if (mappedColumnNames == null) {
-            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-            mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        }
-        return mappedColumnNames;
+        return layout.getMappedColumnNames(resultMap, columnPrefix);
     }
 
     public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-        List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        if (unMappedColumnNames == null) {
-            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-            unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        }
-        return unMappedColumnNames;
+        return layout.getUnmappedColumnNames(resultMap, columnPrefix);
     }
 
-    private String getMapKey(ResultMap resultMap, String columnPrefix) {
-        return resultMap.getId() + ":" + columnPrefix;
-    }
-
-    private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
-        if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
-            return columnNames;
-        }
-        final Set<String> prefixed = new HashSet<>();
-        for (String columnName : columnNames) {
-            prefixed.add(prefix + columnName);
-        }
-        return prefixed;
+    /**
+     * Resolves the columns of the property mappings of a result map to column indexes.
+     *
+     * @param resultMap
+     *          the result map
+     * @param columnPrefix
+     *          the column prefix, may be null
+     * @return for each of {@link ResultMap#getPropertyResultMappings()}, the 1-based index of its column, or 0 when
+     *         the mapping has no column or the column is not part of this result set
+     * @since 3.5.6
+     */
+    public int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+        return layout.getPropertyColumnIndexes(resultMap, columnPrefix);
     }
 
 }
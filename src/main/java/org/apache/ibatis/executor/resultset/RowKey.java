@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+import java.util.Objects;
+
+/**
+ * Identity of an object built from a joined row: the result map, the column prefix and the values of the key columns,
+ * combined with the key of the parent object for nested result maps.
+ * <p>
+ * Unlike a {@link org.apache.ibatis.cache.CacheKey}, the values are kept positionally in an array sized to the key
+ * columns, the hash code is computed once, and combining with a parent key links to it instead of copying its values.
+ *
+ * @since 3.5.6
+ */
+final class RowKey {
+
+    static final RowKey NULL_ROW_KEY = new RowKey(null, null, new Object[0], null);
+
+    private final String resultMapId;
+    private final String columnPrefix;
+    private final Object[] values;
+    private final RowKey parent;
+    private final int hashCode;
+
+    RowKey(String resultMapId, String columnPrefix, Object[] values) {
+        this(resultMapId, columnPrefix, values, null);
+    }
+
+    private RowKey(String resultMapId, String columnPrefix, Object[] values, RowKey parent) {
+        this.resultMapId = resultMapId;
+        this.columnPrefix = columnPrefix;
+        this.values = values;
+        this.parent = parent;
+        int hash = Objects.hashCode(resultMapId) * 31 + Objects.hashCode(columnPrefix);
+        for (Object value : values) {
+            hash = hash * 31 + (value == null ? 1 : ArrayUtil.hashCode(value));
+        }
+        this.hashCode = parent == null ? hash : hash * 31 + parent.hashCode;
+    }
+
+    /**
+     * Combines a row key with the key of its parent object.
+     *
+     * @return the combined key, or {@link #NULL_ROW_KEY} if either key is {@link #NULL_ROW_KEY}
+     */
+    static RowKey combine(RowKey rowKey, RowKey parentRowKey) {
+        if (rowKey == NULL_ROW_KEY || parentRowKey == NULL_ROW_KEY) {
+            return NULL_ROW_KEY;
+        }
+        return new RowKey(rowKey.resultMapId, rowKey.columnPrefix, rowKey.values, parentRowKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof RowKey)) {
+            return false;
+        }
+        final RowKey rowKey = (RowKey) object;
+        if (hashCode != rowKey.hashCode || values.length != rowKey.values.length
+                || !Objects.equals(resultMapId, rowKey.resultMapId) || !Objects.equals(columnPrefix, rowKey.columnPrefix)) {
+            return false;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!ArrayUtil.equals(values[i], rowKey.values[i])) {
+                return false;
+            }
+        }
+        return Objects.equals(parent, rowKey.parent);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder().append(hashCode).append(':').append(resultMapId);
+        for (Object value : values) {
+            builder.append(':').append(ArrayUtil.toString(value));
+        }
+        return parent == null ? builder.toString() : builder.append('/').append(parent).toString();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.property.PropertyPath;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * An unmapped column assigned to a property by auto mapping.
+ */
+class UnMappedColumnAutoMapping {
+    final String column;
+    final int columnIndex;
+    final String property;
+    final PropertyPath propertyPath;
+    final TypeHandler<?> typeHandler;
+    final boolean primitive;
+
+    UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
+        this.column = column;
+        this.columnIndex = columnIndex;
+        this.property = property;
+        this.propertyPath = PropertyPath.compile(property);
+        this.typeHandler = typeHandler;
+        this.primitive = primitive;
+    }
+}
@@ -16,6 +16,7 @@
 package org.apache.ibatis.mapping;
 
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 
@@ -66,6 +67,17 @@ public class BoundSql {
         return additionalParameters.containsKey(paramName);
     }
 
+    /**
+     * Same as {@link #hasAdditionalParameter(String)} for a precompiled property path.
+     *
+     * @param path the compiled property path
+     * @return whether the root of the path is an additional parameter
+     * @since 3.5.6
+     */
+    public boolean hasAdditionalParameter(PropertyPath path) {
+        return !additionalParameters.isEmpty() && additionalParameters.containsKey(path.getName());
+    }
+
     public void setAdditionalParameter(String name, Object value) {
         metaParameters.setValue(name, value);
     }
@@ -73,4 +85,15 @@ public class BoundSql {
     public Object getAdditionalParameter(String name) {
         return metaParameters.getValue(name);
     }
+
+    /**
+     * Same as {@link #getAdditionalParameter(String)} for a precompiled property path.
+     *
+     * @param path the compiled property path
+     * @return the additional parameter value
+     * @since 3.5.6
+     */
+    public Object getAdditionalParameter(PropertyPath path) {
+        return metaParameters.getValue(path);
+    }
 }
@@ -19,12 +19,14 @@ import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.resultset.ResultSetLayout;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -68,6 +70,11 @@ public final class MappedStatement {
     private LanguageDriver lang;
     private String[] resultSets;
 
+    /**
+     * 按结果集序号保存最近一次的列布局及其映射计划, 写时复制, 读取不加锁
+     */
+    private volatile ResultSetLayout[] resultSetLayouts = new ResultSetLayout[0];
+
     MappedStatement() {
         // constructor disabled
     }
@@ -183,6 +190,39 @@ public final class MappedStatement {
         return resultSets;
     }
 
+    /**
+     * Gets the layout of the last result set returned at the given position by this statement.
+     *
+     * @param resultSetIndex
+     *          the 0-based position of the result set
+     * @return the layout, or null if none is kept
+     * @since 3.5.6
+     */
+    public ResultSetLayout getResultSetLayout(int resultSetIndex) {
+        final ResultSetLayout[] layouts = resultSetLayouts;
+        return resultSetIndex < layouts.length ? layouts[resultSetIndex] : null;
+    }
+
+    /**
+     * Keeps the layout of a result set returned at the given position by this statement, replacing the previous one.
+     * Nothing is kept unless {@link Configuration#isCacheResultSetLayouts()} is enabled.
+     *
+     * @param resultSetIndex
+     *          the 0-based position of the result set
+     * @param layout
+     *          the layout
+     * @since 3.5.6
+     */
+    public void setResultSetLayout(int resultSetIndex, ResultSetLayout layout) {
+        if (!configuration.isCacheResultSetLayouts()) {
+            return;
+        }
+        // 并发写入时可能丢掉其中一个, 下次执行再补上即可
+        final ResultSetLayout[] layouts = Arrays.copyOf(resultSetLayouts, Math.max(resultSetLayouts.length, resultSetIndex + 1));
+        layouts[resultSetIndex] = layout;
+        resultSetLayouts = layouts;
+    }
+
     public BoundSql getBoundSql(Object parameterObject) {
         // 通过当前MappedStatement的SqlSource获取BoundSql对象, 内部就是new一个BoundSql
         // 对象实例, 将属性值赋值进去而已.这个BoundSql里面保存了我们写的SQL语句、参数映射
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.mapping;
 
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -36,6 +37,16 @@ public class ParameterMapping {
      */
     private String property;
 
+    /**
+     * 首次使用时编译的属性路径
+     */
+    private volatile PropertyPath propertyPath;
+
+    /**
+     * 是否编译属性路径, foreach 生成的参数名每次执行都不同, 编译了也不会复用
+     */
+    private boolean compilePropertyPath = true;
+
     private ParameterMode mode;
 
     /**
@@ -66,6 +77,23 @@ public class ParameterMapping {
         return property;
     }
 
+    /**
+     * Returns the property compiled on first use.
+     *
+     * @return the compiled property path, or {@code null} if there is no property or it is not to be compiled
+     * @see Builder#compilePropertyPath(boolean)
+     * @since 3.5.6
+     */
+    public PropertyPath getPropertyPath() {
+        PropertyPath path = propertyPath;
+        if (path == null && compilePropertyPath && property != null) {
+            // 并发时可能编译多次, 结果相同, 保留哪一个都可以
+            path = PropertyPath.compile(property);
+            propertyPath = path;
+        }
+        return path;
+    }
+
     /**
      * Used for handling output of callable statements.
      *
@@ -212,6 +240,20 @@ public class ParameterMapping {
             return this;
         }
 
+        /**
+         * Sets whether the property is compiled into a {@link PropertyPath} on first use, which is worth it only when the
+         * mapping is used more than once. Defaults to true.
+         *
+         * @param compilePropertyPath
+         *          whether to compile the property path
+         * @return this builder
+         * @since 3.5.6
+         */
+        public Builder compilePropertyPath(boolean compilePropertyPath) {
+            parameterMapping.compilePropertyPath = compilePropertyPath;
+            return this;
+        }
+
         public ParameterMapping build() {
             resolveTypeHandler();
             validate();
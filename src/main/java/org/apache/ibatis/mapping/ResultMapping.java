@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.mapping;
 
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -32,6 +33,7 @@ public class ResultMapping {
 
     private Configuration configuration;
     private String property;
+    private PropertyPath propertyPath;
     private String column;
     private Class<?> javaType;
     private JdbcType jdbcType;
@@ -53,6 +55,16 @@ public class ResultMapping {
         return property;
     }
 
+    /**
+     * Returns the property compiled once when the mapping was built.
+     *
+     * @return the compiled property path, or {@code null} if there is no property
+     * @since 3.5.6
+     */
+    public PropertyPath getPropertyPath() {
+        return propertyPath;
+    }
+
     public String getColumn() {
         return column;
     }
@@ -256,6 +268,9 @@ public class ResultMapping {
             resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
             resultMapping.composites = Collections.unmodifiableList(resultMapping.composites);
             resolveTypeHandler();
+            if (resultMapping.property != null) {
+                resultMapping.propertyPath = PropertyPath.compile(resultMapping.property);
+            }
             validate();
             return resultMapping;
         }
@@ -21,10 +21,22 @@ import java.util.concurrent.ConcurrentMap;
 public class DefaultReflectorFactory implements ReflectorFactory {
     private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
     private boolean classCacheEnabled = true;
+    private boolean lambdaInvokersEnabled;
 
     public DefaultReflectorFactory() {
     }
 
+    /**
+     * Creates a factory whose reflectors may invoke getters and setters through generated lambdas.
+     *
+     * @param lambdaInvokersEnabled
+     *          true to use lambda based invokers
+     * @since 3.5.6
+     */
+    public DefaultReflectorFactory(boolean lambdaInvokersEnabled) {
+        this.lambdaInvokersEnabled = lambdaInvokersEnabled;
+    }
+
     @Override
     public boolean isClassCacheEnabled() {
         return classCacheEnabled;
@@ -35,14 +47,43 @@ public class DefaultReflectorFactory implements ReflectorFactory {
         this.classCacheEnabled = classCacheEnabled;
     }
 
+    /**
+     * Returns whether reflectors invoke getter and setter methods through lambdas generated with
+     * {@link java.lang.invoke.LambdaMetafactory} instead of {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+     *
+     * @return true if lambda based invokers are used
+     * @since 3.5.6
+     */
+    public boolean isLambdaInvokersEnabled() {
+        return lambdaInvokersEnabled;
+    }
+
+    /**
+     * Sets whether reflectors invoke getter and setter methods through generated lambdas. Methods of classes that are
+     * not public or not visible from the class loader of MyBatis, ambiguous methods and fields keep the reflective
+     * invokers. Reflectors already cached are discarded.
+     *
+     * @param lambdaInvokersEnabled
+     *          true to use lambda based invokers
+     * @since 3.5.6
+     */
+    public void setLambdaInvokersEnabled(boolean lambdaInvokersEnabled) {
+        this.lambdaInvokersEnabled = lambdaInvokersEnabled;
+        reflectorMap.clear();
+    }
+
     @Override
     public Reflector findForClass(Class<?> type) {
         if (classCacheEnabled) {
             // synchronized (type) removed see issue #461
-            return reflectorMap.computeIfAbsent(type, Reflector::new);
+            return reflectorMap.computeIfAbsent(type, this::newReflector);
         } else {
-            return new Reflector(type);
+            return newReflector(type);
         }
     }
 
+    private Reflector newReflector(Class<?> type) {
+        return new Reflector(type, lambdaInvokersEnabled);
+    }
+
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+/**
+ * A {@link DefaultReflectorFactory} whose reflectors invoke getters and setters through generated lambdas, for use as
+ * <code>&lt;reflectorFactory type="org.apache.ibatis.reflection.LambdaReflectorFactory"/&gt;</code>.
+ *
+ * @since 3.5.6
+ * @see DefaultReflectorFactory#setLambdaInvokersEnabled(boolean)
+ */
+public class LambdaReflectorFactory extends DefaultReflectorFactory {
+
+    public LambdaReflectorFactory() {
+        super(true);
+    }
+}
@@ -16,6 +16,7 @@
 package org.apache.ibatis.reflection;
 
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.reflection.wrapper.*;
 
@@ -139,6 +140,65 @@ public class MetaObject {
         }
     }
 
+    /**
+     * Gets the value of a precompiled property path.
+     *
+     * @param path the compiled property path
+     * @return the property value
+     * @since 3.5.6
+     */
+    public Object getValue(PropertyPath path) {
+        if (path.hasNext()) {
+            MetaObject metaValue = MetaObject.forObject(getSegmentValue(path), objectFactory, objectWrapperFactory, reflectorFactory);
+            if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
+                return null;
+            } else {
+                return metaValue.getValue(path.getChildren());
+            }
+        } else {
+            return getSegmentValue(path);
+        }
+    }
+
+    /**
+     * Sets the value of a precompiled property path, instantiating missing intermediate values like {@link #setValue(String, Object)}.
+     *
+     * @param path  the compiled property path
+     * @param value the value to set
+     * @since 3.5.6
+     */
+    public void setValue(PropertyPath path, Object value) {
+        if (path.hasNext()) {
+            MetaObject metaValue = MetaObject.forObject(getSegmentValue(path), objectFactory, objectWrapperFactory, reflectorFactory);
+            if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
+                if (value == null) {
+                    // don't instantiate child path if value is null
+                    return;
+                } else {
+                    metaValue = objectWrapper.instantiatePropertyValue(path.getFullName(), path.getSegment(), objectFactory);
+                }
+            }
+            metaValue.setValue(path.getChildren(), value);
+        } else if (isPlainBeanProperty(path)) {
+            ((BeanWrapper) objectWrapper).set(path, value);
+        } else {
+            objectWrapper.set(path.getSegment(), value);
+        }
+    }
+
+    private Object getSegmentValue(PropertyPath path) {
+        if (isPlainBeanProperty(path)) {
+            return ((BeanWrapper) objectWrapper).get(path);
+        } else {
+            return objectWrapper.get(path.getSegment());
+        }
+    }
+
+    private boolean isPlainBeanProperty(PropertyPath path) {
+        // 子类可能重写了 get/set, 只对原生的 BeanWrapper 走缓存的 invoker
+        return path.getIndex() == null && objectWrapper.getClass() == BeanWrapper.class;
+    }
+
     public MetaObject metaObjectForProperty(String name) {
         Object value = getValue(name);
         return MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
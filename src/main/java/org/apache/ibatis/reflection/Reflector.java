@@ -40,11 +40,26 @@ public class Reflector {
     private final Map<String, Class<?>> setTypes = new HashMap<>();
     private final Map<String, Class<?>> getTypes = new HashMap<>();
     private Constructor<?> defaultConstructor;
+    private final boolean lambdaInvokers;
 
     private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
     public Reflector(Class<?> clazz) {
+        this(clazz, false);
+    }
+
+    /**
+     * Creates a reflector whose getter and setter methods may be invoked through generated lambdas.
+     *
+     * @param clazz
+     *          the class
+     * @param lambdaInvokers
+     *          true to use a {@link LambdaMethodInvoker} for each unambiguous getter and setter method
+     * @since 3.5.6
+     */
+    public Reflector(Class<?> clazz, boolean lambdaInvokers) {
         type = clazz;
+        this.lambdaInvokers = lambdaInvokers;
         // 设置默认的无参构造方法
         addDefaultConstructor(clazz);
         addGetMethods(clazz);
@@ -134,7 +149,7 @@ public class Reflector {
                 ? new AmbiguousMethodInvoker(method, MessageFormat.format(
                 "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
                 name, method.getDeclaringClass().getName()))
-                : new MethodInvoker(method);
+                : newMethodInvoker(method);
         getMethods.put(name, invoker);
         Type returnType = TypeParameterResolver.resolveReturnType(method, type);
         getTypes.put(name, typeToClass(returnType));
@@ -202,12 +217,16 @@ public class Reflector {
     }
 
     private void addSetMethod(String name, Method method) {
-        MethodInvoker invoker = new MethodInvoker(method);
+        MethodInvoker invoker = newMethodInvoker(method);
         setMethods.put(name, invoker);
         Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
         setTypes.put(name, typeToClass(paramTypes[0]));
     }
 
+    private MethodInvoker newMethodInvoker(Method method) {
+        return lambdaInvokers ? LambdaMethodInvoker.of(method) : new MethodInvoker(method);
+    }
+
     private Class<?> typeToClass(Type src) {
         Class<?> result = null;
         if (src instanceof Class) {
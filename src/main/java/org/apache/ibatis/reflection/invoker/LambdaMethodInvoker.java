@@ -0,0 +1,127 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A {@link MethodInvoker} for getters and setters that calls the method through a {@link Function} or
+ * {@link BiConsumer} generated by {@link LambdaMetafactory}, which the JIT can inline like a direct call, instead of
+ * {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * Exceptions thrown by the method are wrapped in an {@link InvocationTargetException}, as with reflection.
+ *
+ * @since 3.5.6
+ */
+public class LambdaMethodInvoker extends MethodInvoker {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+
+    private LambdaMethodInvoker(Method method, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        super(method);
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Creates an invoker for a getter or a setter.
+     *
+     * @param method
+     *          a method without parameters, or with one parameter
+     * @return a lambda based invoker, or a reflective one if no lambda can be generated for the method
+     */
+    public static MethodInvoker of(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers()) || !isAccessible(method.getDeclaringClass())) {
+            return new MethodInvoker(method);
+        }
+        try {
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length == 0 && method.getReturnType() != void.class) {
+                return new LambdaMethodInvoker(method, compileGetter(method), null);
+            } else if (parameterTypes.length == 1 && isAccessible(parameterTypes[0])) {
+                return new LambdaMethodInvoker(method, null, compileSetter(method));
+            }
+        } catch (Throwable t) {
+            // fall back to reflection
+        }
+        return new MethodInvoker(method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(Method method) throws Throwable {
+        final MethodHandle handle = LOOKUP.unreflect(method);
+        // primitives are boxed, references are returned as they are
+        final Class<?> returnType = method.getReturnType().isPrimitive() ? MethodType.methodType(method.getReturnType()).wrap().returnType() : Object.class;
+        final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class), handle, MethodType.methodType(returnType, method.getDeclaringClass()));
+        return (Function<Object, Object>) site.getTarget().invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> compileSetter(Method method) throws Throwable {
+        final MethodHandle handle = LOOKUP.unreflect(method);
+        final Class<?> parameterType = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+        final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class), handle,
+                MethodType.methodType(void.class, method.getDeclaringClass(), parameterType));
+        return (BiConsumer<Object, Object>) site.getTarget().invoke();
+    }
+
+    /**
+     * Generated classes are defined next to this class and refer to the types they use by name, so those types must be
+     * public and visible from the class loader of MyBatis.
+     */
+    private static boolean isAccessible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaMethodInvoker.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+        try {
+            if (getter != null) {
+                return getter.apply(target);
+            }
+            setter.accept(target, args[0]);
+            return null;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.property;
+
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的属性路径, 例如 {@code order.items[0].name}.
+ * <p>
+ * 路径只解析一次, 每一段保存一个不带子路径的 {@link PropertyTokenizer}, 并按 class 缓存该段解析到的 getter/setter {@link Invoker},
+ * 供 {@link org.apache.ibatis.reflection.MetaObject#getValue(PropertyPath)} 等方法重复使用, 避免每次访问都重新切分字符串和查找反射元数据.
+ * <p>
+ * 路径不做全局共享, 由持有它的映射 (如 {@link org.apache.ibatis.mapping.ParameterMapping}) 在构建时编译并随映射一起释放,
+ * 只应为构建期已知的属性编译路径.
+ *
+ * @since 3.5.6
+ */
+public final class PropertyPath {
+
+    private final String fullName;
+    private final PropertyTokenizer segment;
+    private final PropertyPath children;
+    // 按 class 缓存的 getter/setter
+    private final Map<Class<?>, ResolvedInvoker> getters = new ConcurrentHashMap<>(4);
+    private final Map<Class<?>, ResolvedInvoker> setters = new ConcurrentHashMap<>(4);
+
+    private PropertyPath(String fullName) {
+        PropertyTokenizer prop = new PropertyTokenizer(fullName);
+        this.fullName = fullName;
+        this.segment = prop.hasNext() ? new PropertyTokenizer(prop.getIndexedName()) : prop;
+        this.children = prop.hasNext() ? compile(prop.getChildren()) : null;
+    }
+
+    /**
+     * Compiles the given property path. Compiled paths are not shared: the caller keeps the path for as long as it
+     * needs it.
+     *
+     * @param fullName the property path
+     * @return the compiled path
+     */
+    public static PropertyPath compile(String fullName) {
+        return new PropertyPath(fullName);
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getName() {
+        return segment.getName();
+    }
+
+    public String getIndex() {
+        return segment.getIndex();
+    }
+
+    public String getIndexedName() {
+        return segment.getIndexedName();
+    }
+
+    /**
+     * Returns the tokenizer of the first segment. The tokenizer never has children.
+     *
+     * @return the segment tokenizer
+     */
+    public PropertyTokenizer getSegment() {
+        return segment;
+    }
+
+    public boolean hasNext() {
+        return children != null;
+    }
+
+    public PropertyPath getChildren() {
+        return children;
+    }
+
+    /**
+     * Returns the getter of this segment's property on the given type, resolving it once per type.
+     *
+     * @param type             the bean type
+     * @param reflectorFactory the reflector factory
+     * @return the getter invoker
+     */
+    public Invoker getGetInvoker(Class<?> type, ReflectorFactory reflectorFactory) {
+        ResolvedInvoker resolved = getters.get(type);
+        if (resolved == null || resolved.reflectorFactory != reflectorFactory) {
+            resolved = new ResolvedInvoker(reflectorFactory, reflectorFactory.findForClass(type).getGetInvoker(segment.getName()));
+            getters.put(type, resolved);
+        }
+        return resolved.invoker;
+    }
+
+    /**
+     * Returns the setter of this segment's property on the given type, resolving it once per type.
+     *
+     * @param type             the bean type
+     * @param reflectorFactory the reflector factory
+     * @return the setter invoker
+     */
+    public Invoker getSetInvoker(Class<?> type, ReflectorFactory reflectorFactory) {
+        ResolvedInvoker resolved = setters.get(type);
+        if (resolved == null || resolved.reflectorFactory != reflectorFactory) {
+            resolved = new ResolvedInvoker(reflectorFactory, reflectorFactory.findForClass(type).getSetInvoker(segment.getName()));
+            setters.put(type, resolved);
+        }
+        return resolved.invoker;
+    }
+
+    @Override
+    public String toString() {
+        return fullName;
+    }
+
+    private static final class ResolvedInvoker {
+        private final ReflectorFactory reflectorFactory;
+        private final Invoker invoker;
+
+        private ResolvedInvoker(ReflectorFactory reflectorFactory, Invoker invoker) {
+            this.reflectorFactory = reflectorFactory;
+            this.invoker = invoker;
+        }
+    }
+}
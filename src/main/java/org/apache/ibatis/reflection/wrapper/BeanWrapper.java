@@ -18,6 +18,7 @@ package org.apache.ibatis.reflection.wrapper;
 import org.apache.ibatis.reflection.*;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
 import java.util.List;
@@ -56,6 +57,49 @@ public class BeanWrapper extends BaseWrapper {
         }
     }
 
+    /**
+     * Gets a non-indexed bean property using the getter cached in the compiled path.
+     *
+     * @param path the compiled property path
+     * @return the property value
+     * @since 3.5.6
+     */
+    public Object get(PropertyPath path) {
+        try {
+            Invoker method = path.getGetInvoker(object.getClass(), metaObject.getReflectorFactory());
+            try {
+                return method.invoke(object, NO_ARGUMENTS);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not get property '" + path.getName() + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+        }
+    }
+
+    /**
+     * Sets a non-indexed bean property using the setter cached in the compiled path.
+     *
+     * @param path  the compiled property path
+     * @param value the value to set
+     * @since 3.5.6
+     */
+    public void set(PropertyPath path, Object value) {
+        try {
+            Invoker method = path.getSetInvoker(object.getClass(), metaObject.getReflectorFactory());
+            Object[] params = {value};
+            try {
+                method.invoke(object, params);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not set property '" + path.getName() + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+        }
+    }
+
     @Override
     public String findProperty(String name, boolean useCamelCaseMapping) {
         return metaClass.findProperty(name, useCamelCaseMapping);
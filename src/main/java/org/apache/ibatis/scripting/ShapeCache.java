@@ -0,0 +1,156 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of what a dynamic SQL source generated for one parameter shape, keyed by the parameter type and a
+ * shape object describing how the SQL depends on the parameter (the outcome of each condition, the size of each
+ * expanded collection...).
+ * <p>
+ * Lookups take no lock. Once the cache is full, adding a shape evicts the one least recently used, so statements
+ * whose shapes outnumber the limit keep caching the shapes in use instead of missing forever. Eviction scans all the
+ * entries, which is cheap next to the rendering that precedes any addition.
+ *
+ * @param <V> the type of cached values
+ * @since 3.5.6
+ */
+public final class ShapeCache<V> {
+
+    /**
+     * The number of shapes kept by default per SQL source.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final int maxSize;
+    private final Map<Key, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // 使用计数, 并发递增时丢失几次无妨, 只用于近似的最近使用顺序
+    private long clock;
+
+    public ShapeCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ShapeCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the value cached for a shape.
+     *
+     * @param parameterType
+     *          the class of the parameter object, {@code Object.class} for a null parameter
+     * @param shape
+     *          the shape of the parameter
+     * @return the value, or null if none is cached
+     */
+    public V get(Class<?> parameterType, Object shape) {
+        Entry<V> entry = entries.get(new Key(parameterType, shape));
+        if (entry == null) {
+            return null;
+        }
+        entry.lastUsed = ++clock;
+        return entry.value;
+    }
+
+    /**
+     * Caches the value generated for a shape, evicting the least recently used shape if the cache is full.
+     *
+     * @param parameterType
+     *          the class of the parameter object, {@code Object.class} for a null parameter
+     * @param shape
+     *          the shape of the parameter
+     * @param value
+     *          the value
+     */
+    public void put(Class<?> parameterType, Object shape, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Key key = new Key(parameterType, shape);
+        // 只有未命中且渲染完成后才会走到这里, 加锁只为淘汰时不多删
+        lock.lock();
+        try {
+            if (!entries.containsKey(key) && entries.size() >= maxSize) {
+                evictLeastRecentlyUsed();
+            }
+            entries.put(key, new Entry<>(value, ++clock));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Key eldest = null;
+        long eldestUse = Long.MAX_VALUE;
+        for (Map.Entry<Key, Entry<V>> entry : entries.entrySet()) {
+            long lastUsed = entry.getValue().lastUsed;
+            if (eldest == null || lastUsed < eldestUse) {
+                eldest = entry.getKey();
+                eldestUse = lastUsed;
+            }
+        }
+        if (eldest != null) {
+            entries.remove(eldest);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile long lastUsed;
+
+        Entry(V value, long lastUsed) {
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> parameterType;
+        private final Object shape;
+
+        Key(Class<?> parameterType, Object shape) {
+            this.parameterType = parameterType;
+            this.shape = shape;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return parameterType == other.parameterType && shape.equals(other.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * parameterType.hashCode() + shape.hashCode();
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class of language drivers whose scripts are templates rendered into SQL with {@code #{...}} placeholders, such
+ * as drivers for template engines plugged in through {@link org.apache.ibatis.annotations.Lang}.
+ * <p>
+ * Subclasses only compile and render templates. This class shares one compiled template between all statements with
+ * the same script, builds a {@link RawSqlSource} for templates that render the same SQL for any parameter, and keeps
+ * the SQL and parameter mappings rendered for each parameter shape when the subclass can tell the
+ * {@link #getShape(Object, Object) shape} of a parameter. Counters of compilations, renderings and cache hits are
+ * kept per driver.
+ *
+ * @param <T> the type of compiled templates
+ * @since 3.5.6
+ */
+public abstract class TemplateLanguageDriver<T> implements LanguageDriver {
+
+    // 按脚本文本缓存的已编译模板
+    private final Map<String, T> templates = new ConcurrentHashMap<>();
+    private final AtomicLong compilations = new AtomicLong();
+    private final AtomicLong templateHits = new AtomicLong();
+    private final AtomicLong renderings = new AtomicLong();
+    private final AtomicLong shapeHits = new AtomicLong();
+
+    /**
+     * Compiles a script into a template.
+     *
+     * @param configuration the configuration
+     * @param script        the script
+     * @return the compiled template
+     */
+    protected abstract T compile(Configuration configuration, String script);
+
+    /**
+     * Renders a template into SQL that may contain {@code #{...}} placeholders. Values bound by the template, for
+     * example the elements of an expanded collection, are put into the bindings and become additional parameters of
+     * the bound SQL.
+     *
+     * @param template the compiled template
+     * @param bindings the parameter object under {@value DynamicContext#PARAMETER_OBJECT_KEY}, the database id under
+     *                 {@value DynamicContext#DATABASE_ID_KEY}, and the values bound by the template
+     * @return the rendered SQL
+     */
+    protected abstract String render(T template, Map<String, Object> bindings);
+
+    /**
+     * Returns whether a template renders the same SQL whatever the parameter is. Static templates are rendered once
+     * with a null parameter and built as {@link RawSqlSource}s.
+     *
+     * @param template the compiled template
+     * @return true if the template is static
+     */
+    protected boolean isStatic(T template) {
+        return false;
+    }
+
+    /**
+     * Returns a key that is equal for all parameter objects of the same class that render the same SQL, for example
+     * the outcomes of the conditions of the template and the sizes of the collections it expands. The SQL and
+     * parameter mappings rendered for a shape are reused for later parameters with the same shape, unless rendering
+     * bound additional values or changed the initial bindings. At most {@value ShapeCache#DEFAULT_MAX_SIZE} shapes are
+     * kept per statement, the least recently used being evicted first.
+     *
+     * @param template        the compiled template
+     * @param parameterObject the parameter object (can be null)
+     * @return the shape, or null if the rendered SQL cannot be reused
+     */
+    protected Object getShape(T template, Object parameterObject) {
+        return null;
+    }
+
+    @Override
+    public ParameterHandler createParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
+        return new DefaultParameterHandler(mappedStatement, parameterObject, boundSql);
+    }
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+        return createSqlSource(configuration, script.getNode().getTextContent(), parameterType);
+    }
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+        T template = getTemplate(configuration, script);
+        if (isStatic(template)) {
+            renderings.incrementAndGet();
+            return new RawSqlSource(configuration, render(template, newBindings(configuration, null)), parameterType);
+        }
+        return new TemplateSqlSource(configuration, template);
+    }
+
+    private T getTemplate(Configuration configuration, String script) {
+        T template = templates.get(script);
+        if (template != null) {
+            templateHits.incrementAndGet();
+            return template;
+        }
+        return templates.computeIfAbsent(script, key -> {
+            compilations.incrementAndGet();
+            return compile(configuration, key);
+        });
+    }
+
+    private static Map<String, Object> newBindings(Configuration configuration, Object parameterObject) {
+        Map<String, Object> bindings = new HashMap<>();
+        bindings.put(DynamicContext.PARAMETER_OBJECT_KEY, parameterObject);
+        bindings.put(DynamicContext.DATABASE_ID_KEY, configuration.getDatabaseId());
+        return bindings;
+    }
+
+    /**
+     * Returns the number of scripts compiled by this driver.
+     *
+     * @return the number of compilations
+     */
+    public long getCompilationCount() {
+        return compilations.get();
+    }
+
+    /**
+     * Returns the number of statements that reused a template compiled for another statement with the same script.
+     *
+     * @return the number of template cache hits
+     */
+    public long getTemplateCacheHitCount() {
+        return templateHits.get();
+    }
+
+    /**
+     * Returns the number of times a template was rendered.
+     *
+     * @return the number of renderings
+     */
+    public long getRenderCount() {
+        return renderings.get();
+    }
+
+    /**
+     * Returns the number of executions that reused the SQL rendered for the same parameter shape instead of rendering.
+     *
+     * @return the number of shape cache hits
+     */
+    public long getShapeCacheHitCount() {
+        return shapeHits.get();
+    }
+
+    private class TemplateSqlSource implements SqlSource {
+
+        private final Configuration configuration;
+        private final T template;
+        // 按 参数类型 + 参数形态 缓存渲染出的SQL与参数映射
+        private final ShapeCache<RenderedSql> shapes = new ShapeCache<>();
+
+        TemplateSqlSource(Configuration configuration, T template) {
+            this.configuration = configuration;
+            this.template = template;
+        }
+
+        @Override
+        public BoundSql getBoundSql(Object parameterObject) {
+            Object shape = getShape(template, parameterObject);
+            if (shape == null) {
+                return renderBoundSql(parameterObject, newBindings(configuration, parameterObject));
+            }
+            Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+            RenderedSql rendered = shapes.get(parameterType, shape);
+            Map<String, Object> bindings = newBindings(configuration, parameterObject);
+            if (rendered != null) {
+                shapeHits.incrementAndGet();
+                BoundSql boundSql = new BoundSql(configuration, rendered.sql, new ArrayList<>(rendered.parameterMappings), parameterObject);
+                bindings.forEach(boundSql::setAdditionalParameter);
+                return boundSql;
+            }
+            BoundSql boundSql = renderBoundSql(parameterObject, bindings);
+            // 渲染时绑定或改写了值, 这些值每次调用都可能不同, 不能复用
+            if (bindsOnly(bindings, parameterObject)) {
+                shapes.put(parameterType, shape, new RenderedSql(boundSql.getSql(), boundSql.getParameterMappings()));
+            }
+            return boundSql;
+        }
+
+        private boolean bindsOnly(Map<String, Object> bindings, Object parameterObject) {
+            return bindings.size() == 2
+                && bindings.get(DynamicContext.PARAMETER_OBJECT_KEY) == parameterObject
+                && Objects.equals(bindings.get(DynamicContext.DATABASE_ID_KEY), configuration.getDatabaseId());
+        }
+
+        private BoundSql renderBoundSql(Object parameterObject, Map<String, Object> bindings) {
+            renderings.incrementAndGet();
+            String sql = render(template, bindings);
+            SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+            Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+            SqlSource sqlSource = sqlSourceParser.parse(sql, parameterType, bindings);
+            BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+            bindings.forEach(boundSql::setAdditionalParameter);
+            return boundSql;
+        }
+    }
+
+    private static final class RenderedSql {
+        private final String sql;
+        private final List<ParameterMapping> parameterMappings;
+
+        RenderedSql(String sql, List<ParameterMapping> parameterMappings) {
+            this.sql = sql;
+            this.parameterMappings = new ArrayList<>(parameterMappings);
+        }
+    }
+
+}
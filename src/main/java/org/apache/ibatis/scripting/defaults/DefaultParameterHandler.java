@@ -22,6 +22,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
@@ -65,22 +66,29 @@ public class DefaultParameterHandler implements ParameterHandler {
         // 获取输入参数映射信息
         List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
         if (parameterMappings != null) {
+            MetaObject metaObject = null;
             // 遍历, 依次每个设值
             for (int i = 0; i < parameterMappings.size(); i++) {
                 ParameterMapping parameterMapping = parameterMappings.get(i);
                 // 满足能够输入映射
                 if (parameterMapping.getMode() != ParameterMode.OUT) {
                     Object value;
+                    PropertyPath propertyPath = parameterMapping.getPropertyPath();
                     String propertyName = parameterMapping.getProperty();
-                    if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
-                        value = boundSql.getAdditionalParameter(propertyName);
+                    // foreach 的 __frch_ 参数没有预编译的路径
+                    boolean additional = propertyPath == null ? boundSql.hasAdditionalParameter(propertyName) : boundSql.hasAdditionalParameter(propertyPath);
+                    if (additional) { // issue #448 ask first for additional params
+                        value = propertyPath == null ? boundSql.getAdditionalParameter(propertyName) : boundSql.getAdditionalParameter(propertyPath);
                     } else if (parameterObject == null) {
                         value = null;
                     } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
                         value = parameterObject;
                     } else {
-                        MetaObject metaObject = configuration.newMetaObject(parameterObject);
-                        value = metaObject.getValue(propertyName);
+                        // 同一个参数对象只包装一次, 属性路径使用构建映射时预编译好的
+                        if (metaObject == null) {
+                            metaObject = configuration.newMetaObject(parameterObject);
+                        }
+                        value = propertyPath == null ? metaObject.getValue(propertyName) : metaObject.getValue(propertyPath);
                     }
                     TypeHandler typeHandler = parameterMapping.getTypeHandler();
                     JdbcType jdbcType = parameterMapping.getJdbcType();
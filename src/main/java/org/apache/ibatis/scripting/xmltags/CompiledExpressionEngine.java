@@ -0,0 +1,453 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import ognl.OgnlOps;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An expression engine that compiles the common subset of OGNL used in dynamic SQL into a tree of lambdas: property
+ * paths, literals, {@code null} checks, comparisons, {@code and}/{@code or}/{@code not} and the {@code size()},
+ * {@code isEmpty()}, {@code length()}, {@code equals()} and {@code toString()} methods.
+ * <p>
+ * Values are compared and converted with the same {@link OgnlOps} functions OGNL uses, so a compiled expression
+ * yields the same result as OGNL. Expressions outside of the subset, and evaluations that meet a case the compiled
+ * form does not handle (a {@code null} in the middle of a path, a collection or array target, a getter that throws),
+ * are evaluated with OGNL instead.
+ *
+ * @since 3.5.6
+ */
+public class CompiledExpressionEngine implements ExpressionEngine {
+
+    private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+    private static final CompiledExpression UNSUPPORTED = root -> {
+        throw FallbackException.INSTANCE;
+    };
+
+    private final ReflectorFactory reflectorFactory;
+    // 与 OgnlCache 一样不淘汰: 表达式都来自 mapper 中的 test、collection、bind 与 ${}, 数量在构建期就已确定
+    private final Map<String, CompiledExpression> expressionCache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an engine that reads properties through its own {@link DefaultReflectorFactory}.
+     */
+    public CompiledExpressionEngine() {
+        this(new DefaultReflectorFactory());
+    }
+
+    /**
+     * Creates an engine that reads properties through the given reflector factory, usually the one of the
+     * configuration.
+     *
+     * @param reflectorFactory the reflector factory
+     */
+    public CompiledExpressionEngine(ReflectorFactory reflectorFactory) {
+        this.reflectorFactory = reflectorFactory;
+    }
+
+    @Override
+    public Object getValue(String expression, Object root) {
+        CompiledExpression compiled = getCompiledExpression(expression);
+        try {
+            return compiled.getValue(root);
+        } catch (FallbackException e) {
+            return OgnlCache.getValue(expression, root);
+        }
+    }
+
+    /**
+     * Returns whether an expression belongs to the compiled subset.
+     *
+     * @param expression the expression
+     * @return true if the expression is evaluated without OGNL, at least when no fallback case is met
+     */
+    public boolean isCompiled(String expression) {
+        return getCompiledExpression(expression) != UNSUPPORTED;
+    }
+
+    private CompiledExpression getCompiledExpression(String expression) {
+        CompiledExpression compiled = expressionCache.get(expression);
+        if (compiled == null) {
+            compiled = compile(expression);
+            expressionCache.put(expression, compiled);
+        }
+        return compiled;
+    }
+
+    private CompiledExpression compile(String expression) {
+        try {
+            return new Parser(expression, reflectorFactory).parse();
+        } catch (UnsupportedExpressionException e) {
+            return UNSUPPORTED;
+        }
+    }
+
+    private static Object getProperty(ReflectorFactory reflectorFactory, Object target, String name) {
+        if (target instanceof DynamicContext.ContextMap) {
+            return CONTEXT_ACCESSOR.getProperty(null, target, name);
+        }
+        if (target instanceof Map) {
+            return ((Map<?, ?>) target).get(name);
+        }
+        if (target == null || target instanceof Collection || target instanceof Iterator
+            || target instanceof Enumeration || target.getClass().isArray()) {
+            throw FallbackException.INSTANCE;
+        }
+        Reflector reflector = reflectorFactory.findForClass(target.getClass());
+        if (!reflector.hasGetter(name)) {
+            throw FallbackException.INSTANCE;
+        }
+        try {
+            return reflector.getGetInvoker(name).invoke(target, null);
+        } catch (Exception e) {
+            throw FallbackException.INSTANCE;
+        }
+    }
+
+    private static Object invokeMethod(Object target, String name, Object argument) {
+        switch (name) {
+            case "size":
+                if (target instanceof Collection) {
+                    return ((Collection<?>) target).size();
+                }
+                if (target instanceof Map) {
+                    return ((Map<?, ?>) target).size();
+                }
+                break;
+            case "isEmpty":
+                if (target instanceof Collection) {
+                    return ((Collection<?>) target).isEmpty();
+                }
+                if (target instanceof Map) {
+                    return ((Map<?, ?>) target).isEmpty();
+                }
+                if (target instanceof String) {
+                    return ((String) target).isEmpty();
+                }
+                break;
+            case "length":
+                if (target instanceof CharSequence) {
+                    return ((CharSequence) target).length();
+                }
+                break;
+            case "equals":
+                if (target != null) {
+                    return target.equals(argument);
+                }
+                break;
+            case "toString":
+                if (target != null) {
+                    return target.toString();
+                }
+                break;
+            default:
+                break;
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    @FunctionalInterface
+    private interface CompiledExpression {
+        Object getValue(Object root);
+    }
+
+    /**
+     * Signals that an evaluation has to be done by OGNL. Shared and without stack trace since it is only used for
+     * control flow.
+     */
+    private static final class FallbackException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final FallbackException INSTANCE = new FallbackException();
+
+        private FallbackException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class UnsupportedExpressionException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private UnsupportedExpressionException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A recursive descent parser of the supported subset, following the precedence of the OGNL grammar.
+     */
+    private static final class Parser {
+        private static final String[] OPERATORS = {"==", "!=", "<=", ">=", "&&", "||", "<", ">", "!", "(", ")", ".", ","};
+
+        private final String expression;
+        private final ReflectorFactory reflectorFactory;
+        private final List<String> tokens = new ArrayList<>();
+        private int position;
+
+        Parser(String expression, ReflectorFactory reflectorFactory) throws UnsupportedExpressionException {
+            this.expression = expression;
+            this.reflectorFactory = reflectorFactory;
+            tokenize();
+        }
+
+        CompiledExpression parse() throws UnsupportedExpressionException {
+            CompiledExpression result = parseOr();
+            if (position != tokens.size()) {
+                throw new UnsupportedExpressionException();
+            }
+            return result;
+        }
+
+        private CompiledExpression parseOr() throws UnsupportedExpressionException {
+            CompiledExpression left = parseAnd();
+            while (accept("||") || accept("or")) {
+                CompiledExpression l = left;
+                CompiledExpression r = parseAnd();
+                // 与 OGNL 一致, 返回第一个为真的值或最后一个值
+                left = root -> {
+                    Object value = l.getValue(root);
+                    return OgnlOps.booleanValue(value) ? value : r.getValue(root);
+                };
+            }
+            return left;
+        }
+
+        private CompiledExpression parseAnd() throws UnsupportedExpressionException {
+            CompiledExpression left = parseEquality();
+            while (accept("&&") || accept("and")) {
+                CompiledExpression l = left;
+                CompiledExpression r = parseEquality();
+                left = root -> {
+                    Object value = l.getValue(root);
+                    return OgnlOps.booleanValue(value) ? r.getValue(root) : value;
+                };
+            }
+            return left;
+        }
+
+        private CompiledExpression parseEquality() throws UnsupportedExpressionException {
+            CompiledExpression left = parseRelational();
+            while (true) {
+                CompiledExpression l = left;
+                if (accept("==") || accept("eq")) {
+                    CompiledExpression r = parseRelational();
+                    left = root -> OgnlOps.equal(l.getValue(root), r.getValue(root)) ? Boolean.TRUE : Boolean.FALSE;
+                } else if (accept("!=") || accept("neq")) {
+                    CompiledExpression r = parseRelational();
+                    left = root -> OgnlOps.equal(l.getValue(root), r.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private CompiledExpression parseRelational() throws UnsupportedExpressionException {
+            CompiledExpression left = parseUnary();
+            while (true) {
+                CompiledExpression l = left;
+                if (accept("<") || accept("lt")) {
+                    CompiledExpression r = parseUnary();
+                    left = root -> OgnlOps.less(l.getValue(root), r.getValue(root)) ? Boolean.TRUE : Boolean.FALSE;
+                } else if (accept(">") || accept("gt")) {
+                    CompiledExpression r = parseUnary();
+                    left = root -> OgnlOps.greater(l.getValue(root), r.getValue(root)) ? Boolean.TRUE : Boolean.FALSE;
+                } else if (accept("<=") || accept("lte")) {
+                    CompiledExpression r = parseUnary();
+                    left = root -> OgnlOps.greater(l.getValue(root), r.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+                } else if (accept(">=") || accept("gte")) {
+                    CompiledExpression r = parseUnary();
+                    left = root -> OgnlOps.less(l.getValue(root), r.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private CompiledExpression parseUnary() throws UnsupportedExpressionException {
+            if (accept("!") || accept("not")) {
+                CompiledExpression operand = parseUnary();
+                return root -> OgnlOps.booleanValue(operand.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+            }
+            return parseChain();
+        }
+
+        private CompiledExpression parseChain() throws UnsupportedExpressionException {
+            CompiledExpression result = parsePrimary();
+            while (accept(".")) {
+                String name = next();
+                CompiledExpression target = result;
+                if (accept("(")) {
+                    CompiledExpression argument = null;
+                    if (!accept(")")) {
+                        argument = parseOr();
+                        expect(")");
+                    }
+                    if (argument == null ? !isNoArgMethod(name) : !"equals".equals(name)) {
+                        throw new UnsupportedExpressionException();
+                    }
+                    CompiledExpression arg = argument;
+                    result = root -> invokeMethod(target.getValue(root), name, arg == null ? null : arg.getValue(root));
+                } else {
+                    checkIdentifier(name);
+                    result = root -> getProperty(reflectorFactory, target.getValue(root), name);
+                }
+            }
+            return result;
+        }
+
+        private CompiledExpression parsePrimary() throws UnsupportedExpressionException {
+            if (accept("(")) {
+                CompiledExpression result = parseOr();
+                expect(")");
+                return result;
+            }
+            String token = next();
+            char first = token.charAt(0);
+            if (first == '\'' || first == '"' || Character.isDigit(first)) {
+                Object value = evaluateLiteral(token);
+                return root -> value;
+            }
+            if ("null".equals(token)) {
+                return root -> null;
+            }
+            if ("true".equals(token)) {
+                return root -> Boolean.TRUE;
+            }
+            if ("false".equals(token)) {
+                return root -> Boolean.FALSE;
+            }
+            String name = checkIdentifier(token);
+            if (position < tokens.size() && "(".equals(tokens.get(position))) {
+                throw new UnsupportedExpressionException();
+            }
+            return root -> getProperty(reflectorFactory, root, name);
+        }
+
+        private static boolean isNoArgMethod(String name) {
+            return "size".equals(name) || "isEmpty".equals(name) || "length".equals(name) || "toString".equals(name);
+        }
+
+        private static Object evaluateLiteral(String token) throws UnsupportedExpressionException {
+            // 字面量交给 OGNL 解析一次, 保证类型一致 (如单引号单字符为 Character)
+            try {
+                return OgnlCache.getValue(token, null);
+            } catch (RuntimeException e) {
+                throw new UnsupportedExpressionException();
+            }
+        }
+
+        private static String checkIdentifier(String token) throws UnsupportedExpressionException {
+            if (!Character.isJavaIdentifierStart(token.charAt(0)) || isReserved(token)) {
+                throw new UnsupportedExpressionException();
+            }
+            return token;
+        }
+
+        // OGNL 的关键字, 以及 OGNL 对 Map/集合做特殊处理的属性名
+        private static boolean isReserved(String name) {
+            switch (name) {
+                case "and": case "or": case "not": case "eq": case "neq": case "lt": case "gt": case "lte": case "gte":
+                case "in": case "instanceof": case "new": case "shl": case "shr": case "ushr": case "band": case "bor":
+                case "xor": case "null": case "true": case "false": case "this": case "class":
+                case "size": case "isEmpty": case "keys": case "keySet": case "values": case "length": case "iterator":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) throws UnsupportedExpressionException {
+            if (!accept(token)) {
+                throw new UnsupportedExpressionException();
+            }
+        }
+
+        private String next() throws UnsupportedExpressionException {
+            if (position >= tokens.size()) {
+                throw new UnsupportedExpressionException();
+            }
+            return tokens.get(position++);
+        }
+
+        private void tokenize() throws UnsupportedExpressionException {
+            int length = expression.length();
+            int i = 0;
+            outer:
+            while (i < length) {
+                char c = expression.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    int start = i;
+                    while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+                        i++;
+                    }
+                    tokens.add(expression.substring(start, i));
+                } else if (Character.isDigit(c)) {
+                    int start = i;
+                    while (i < length && Character.isDigit(expression.charAt(i))) {
+                        i++;
+                    }
+                    if (i + 1 < length && expression.charAt(i) == '.' && Character.isDigit(expression.charAt(i + 1))) {
+                        i++;
+                        while (i < length && Character.isDigit(expression.charAt(i))) {
+                            i++;
+                        }
+                    }
+                    // 带后缀或指数的数字字面量不在支持范围内
+                    if (i < length && (Character.isJavaIdentifierPart(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                        throw new UnsupportedExpressionException();
+                    }
+                    tokens.add(expression.substring(start, i));
+                } else if (c == '\'' || c == '"') {
+                    int end = expression.indexOf(c, i + 1);
+                    if (end < 0 || expression.lastIndexOf('\\', end) > i) {
+                        throw new UnsupportedExpressionException();
+                    }
+                    tokens.add(expression.substring(i, end + 1));
+                    i = end + 1;
+                } else {
+                    for (String operator : OPERATORS) {
+                        if (expression.startsWith(operator, i)) {
+                            tokens.add(operator);
+                            i += operator.length();
+                            continue outer;
+                        }
+                    }
+                    throw new UnsupportedExpressionException();
+                }
+            }
+        }
+    }
+
+}
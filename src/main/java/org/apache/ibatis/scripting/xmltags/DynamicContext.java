@@ -18,12 +18,15 @@ package org.apache.ibatis.scripting.xmltags;
 import ognl.OgnlContext;
 import ognl.OgnlRuntime;
 import ognl.PropertyAccessor;
+import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
 
 /**
  * @author Clinton Begin
@@ -38,10 +41,33 @@ public class DynamicContext {
     }
 
     private final ContextMap bindings;
-    private final StringJoiner sqlBuilder = new StringJoiner(" ");
+    private final ExpressionEngine expressionEngine;
+    // 所有片段以空格连接写入同一个缓冲区, 包装其它上下文的子类不持有缓冲区
+    private final StringBuilder sqlBuilder;
+    private boolean sqlAppended;
+    // 编译模式下按出现顺序记录的 #{} 内容, 非编译模式为 null
+    private final List<String> parameterContents;
+    // 探测模式下记录分支走向、foreach 次数与 ${} 取值, 不拼接 SQL, 非探测模式为 null
+    private StringBuilder shape;
     private int uniqueNumber = 0;
 
     public DynamicContext(Configuration configuration, Object parameterObject) {
+        this(configuration, parameterObject, false);
+    }
+
+    /**
+     * Creates a context that, when compiled, replaces every {@code #{...}} placeholder of the appended SQL with
+     * {@code ?} and records its content, so that the generated SQL does not need to be parsed again.
+     *
+     * @param configuration   the configuration
+     * @param parameterObject the parameter object
+     * @param compiled        whether placeholders are replaced as the SQL is appended
+     * @since 3.5.6
+     */
+    public DynamicContext(Configuration configuration, Object parameterObject, boolean compiled) {
+        this.sqlBuilder = new StringBuilder(256);
+        this.parameterContents = compiled ? new ArrayList<>() : null;
+        this.expressionEngine = configuration.getExpressionEngine();
         if (parameterObject != null && !(parameterObject instanceof Map)) {
             MetaObject metaObject = configuration.newMetaObject(parameterObject);
             boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
@@ -53,6 +79,20 @@ public class DynamicContext {
         bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
     }
 
+    /**
+     * Creates a context that wraps another one, such as the contexts of trim and foreach nodes. It holds no bindings
+     * and no SQL buffer of its own, so it must override every method that would use them.
+     *
+     * @param delegate the wrapped context
+     * @since 3.5.6
+     */
+    protected DynamicContext(DynamicContext delegate) {
+        this.sqlBuilder = null;
+        this.parameterContents = null;
+        this.bindings = null;
+        this.expressionEngine = delegate.getExpressionEngine();
+    }
+
     public Map<String, Object> getBindings() {
         return bindings;
     }
@@ -61,8 +101,119 @@ public class DynamicContext {
         bindings.put(name, value);
     }
 
+    /**
+     * Returns the engine evaluating the expressions of the dynamic SQL applied to this context.
+     *
+     * @return the expression engine
+     * @since 3.5.6
+     */
+    public ExpressionEngine getExpressionEngine() {
+        return expressionEngine;
+    }
+
     public void appendSql(String sql) {
-        sqlBuilder.add(sql);
+        if (shape != null) {
+            return;
+        }
+        if (parameterContents != null && sql != null) {
+            addSql(compileSql(sql, parameterContents));
+        } else {
+            addSql(sql);
+        }
+    }
+
+    /**
+     * Appends SQL whose placeholders were already replaced with {@code ?}. Only valid on a compiled context.
+     *
+     * @param sql               the SQL with {@code ?} markers
+     * @param parameterContents the contents of the replaced placeholders, in order
+     * @since 3.5.6
+     */
+    public void appendSql(String sql, List<String> parameterContents) {
+        if (this.parameterContents == null) {
+            throw new IllegalStateException("Compiled SQL cannot be appended to a context that is not compiled.");
+        }
+        if (shape != null) {
+            return;
+        }
+        addSql(sql);
+        this.parameterContents.addAll(parameterContents);
+    }
+
+    private void addSql(String sql) {
+        if (sqlAppended) {
+            sqlBuilder.append(' ');
+        }
+        sqlBuilder.append(sql);
+        sqlAppended = true;
+    }
+
+    /**
+     * Returns whether this context replaces placeholders as the SQL is appended.
+     *
+     * @return true if compiled
+     * @since 3.5.6
+     */
+    public boolean isCompiled() {
+        return parameterContents != null;
+    }
+
+    /**
+     * Returns the contents of the placeholders replaced so far.
+     *
+     * @return the placeholder contents in order, empty if this context is not compiled
+     * @since 3.5.6
+     */
+    public List<String> getParameterContents() {
+        return parameterContents != null ? parameterContents : Collections.emptyList();
+    }
+
+    /**
+     * Returns whether this context only records the shape of the SQL. A shape probe evaluates every test, iteration
+     * and binding of the tree exactly as a rendering context would, but discards the SQL and records instead the
+     * decisions that determine it.
+     *
+     * @return true if this context is a shape probe
+     * @since 3.5.6
+     */
+    public boolean isShapeProbe() {
+        return shape != null;
+    }
+
+    /**
+     * Records a decision that determines the generated SQL. Ignored unless this context is a shape probe.
+     *
+     * @param token the token describing the decision
+     * @since 3.5.6
+     */
+    public void appendShape(String token) {
+        if (shape != null) {
+            shape.append(token);
+        }
+    }
+
+    /**
+     * Returns the decisions recorded so far.
+     *
+     * @return the shape signature, null if this context is not a shape probe
+     * @since 3.5.6
+     */
+    public String getShape() {
+        return shape != null ? shape.toString() : null;
+    }
+
+    /**
+     * Creates a context that records the shape of the SQL instead of the SQL itself.
+     *
+     * @param configuration   the configuration
+     * @param parameterObject the parameter object
+     * @return the shape probe
+     * @since 3.5.6
+     */
+    public static DynamicContext shapeProbe(Configuration configuration, Object parameterObject) {
+        DynamicContext context = new DynamicContext(configuration, parameterObject);
+        context.shape = new StringBuilder();
+        return context;
     }
 
     public String getSql() {
@@ -73,6 +224,25 @@ public class DynamicContext {
         return uniqueNumber++;
     }
 
+    /**
+     * Replaces the {@code #{...}} placeholders of a SQL fragment with {@code ?}.
+     *
+     * @param sql               the SQL fragment
+     * @param parameterContents the list receiving the placeholder contents
+     * @return the SQL with {@code ?} markers
+     * @since 3.5.6
+     */
+    public static String compileSql(String sql, List<String> parameterContents) {
+        if (sql.indexOf("#{") < 0) {
+            return sql;
+        }
+        GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+            parameterContents.add(content);
+            return "?";
+        });
+        return parser.parse(sql);
+    }
+
     static class ContextMap extends HashMap<String, Object> {
         private static final long serialVersionUID = 2977601501966151582L;
         private final MetaObject parameterMetaObject;
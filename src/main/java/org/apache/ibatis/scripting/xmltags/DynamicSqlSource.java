@@ -17,9 +17,18 @@ package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.scripting.ShapeCache;
 import org.apache.ibatis.session.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * @author Clinton Begin
  */
@@ -27,6 +36,8 @@ public class DynamicSqlSource implements SqlSource {
 
     private final Configuration configuration;
     private final SqlNode rootSqlNode;
+    // 按 参数类型 + 分支走向 缓存生成的SQL与参数映射
+    private final ShapeCache<BoundSqlShape> shapes = new ShapeCache<>();
 
     public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
         this.configuration = configuration;
@@ -35,6 +46,34 @@ public class DynamicSqlSource implements SqlSource {
 
     @Override
     public BoundSql getBoundSql(Object parameterObject) {
+        if (configuration.isUseDynamicSqlShapeCache()) {
+            return getShapedBoundSql(parameterObject);
+        }
+        return renderBoundSql(parameterObject);
+    }
+
+    private BoundSql getShapedBoundSql(Object parameterObject) {
+        // 先只求值各个分支, 分支走向相同的调用生成的SQL与参数映射也相同
+        DynamicContext probe = DynamicContext.shapeProbe(configuration, parameterObject);
+        rootSqlNode.apply(probe);
+        Map<String, Object> bindings = probe.getBindings();
+        Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+        String shapeKey = probe.getShape();
+        BoundSqlShape shape = shapes.get(parameterType, shapeKey);
+        if (shape != null && shape.matches(configuration, bindings)) {
+            BoundSql boundSql = new BoundSql(configuration, shape.sql, new ArrayList<>(shape.parameterMappings), parameterObject);
+            bindings.forEach(boundSql::setAdditionalParameter);
+            return boundSql;
+        }
+        BoundSql boundSql = renderBoundSql(parameterObject);
+        shapes.put(parameterType, shapeKey, BoundSqlShape.of(configuration, boundSql, bindings));
+        return boundSql;
+    }
+
+    private BoundSql renderBoundSql(Object parameterObject) {
+        if (configuration.isUseCompiledDynamicSql()) {
+            return getCompiledBoundSql(parameterObject);
+        }
         DynamicContext context = new DynamicContext(configuration, parameterObject);
         rootSqlNode.apply(context);
         SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
@@ -45,4 +84,74 @@ public class DynamicSqlSource implements SqlSource {
         return boundSql;
     }
 
+    private BoundSql getCompiledBoundSql(Object parameterObject) {
+        // #{} 在拼接时已替换为 ?, 只需按记录的内容构建参数映射
+        DynamicContext context = new DynamicContext(configuration, parameterObject, true);
+        rootSqlNode.apply(context);
+        String sql = context.getSql();
+        if (configuration.isShrinkWhitespacesInSql()) {
+            sql = SqlSourceBuilder.removeExtraWhitespaces(sql);
+        }
+        SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+        Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+        List<ParameterMapping> parameterMappings = sqlSourceParser.buildParameterMappings(context.getParameterContents(), parameterType, context.getBindings());
+        BoundSql boundSql = new BoundSql(configuration, sql, parameterMappings, parameterObject);
+        context.getBindings().forEach(boundSql::setAdditionalParameter);
+        return boundSql;
+    }
+
+    /**
+     * The SQL and parameter mappings generated for one branch combination. The java type of a placeholder bound to
+     * an additional parameter (a foreach item or a bind variable) comes from the runtime type of its value, so those
+     * types are kept and checked again before the shape is reused.
+     */
+    private static final class BoundSqlShape {
+        private final String sql;
+        private final List<ParameterMapping> parameterMappings;
+        // 每个参数映射在附加参数中的类型, 不是附加参数的为 null
+        private final Class<?>[] additionalParameterTypes;
+
+        private BoundSqlShape(String sql, List<ParameterMapping> parameterMappings, Class<?>[] additionalParameterTypes) {
+            this.sql = sql;
+            this.parameterMappings = parameterMappings;
+            this.additionalParameterTypes = additionalParameterTypes;
+        }
+
+        static BoundSqlShape of(Configuration configuration, BoundSql boundSql, Map<String, Object> bindings) {
+            List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+            Class<?>[] types = new Class<?>[parameterMappings.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = additionalParameterType(configuration, bindings, parameterMappings.get(i).getProperty());
+            }
+            return new BoundSqlShape(boundSql.getSql(), parameterMappings, types);
+        }
+
+        boolean matches(Configuration configuration, Map<String, Object> bindings) {
+            for (int i = 0; i < additionalParameterTypes.length; i++) {
+                Class<?> type = additionalParameterType(configuration, bindings, parameterMappings.get(i).getProperty());
+                if (!Objects.equals(additionalParameterTypes[i], type)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 与 SqlSourceBuilder 从附加参数推断类型的方式一致
+        private static Class<?> additionalParameterType(Configuration configuration, Map<String, Object> bindings, String property) {
+            if (property == null) {
+                return null;
+            }
+            PropertyTokenizer prop = new PropertyTokenizer(property);
+            if (!bindings.containsKey(prop.hasNext() ? prop.getIndexedName() : prop.getName())) {
+                return null;
+            }
+            if (!prop.hasNext() && prop.getIndex() == null) {
+                Object value = bindings.get(prop.getName());
+                return value == null ? Object.class : value.getClass();
+            }
+            MetaObject metaBindings = configuration.newMetaObject(bindings);
+            return metaBindings.hasGetter(property) ? metaBindings.getGetterType(property) : null;
+        }
+    }
+
 }
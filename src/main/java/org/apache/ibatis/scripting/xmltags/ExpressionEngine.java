@@ -0,0 +1,35 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+/**
+ * Evaluates the expressions of dynamic SQL: the tests of {@code <if>} and {@code <when>}, the collections of
+ * {@code <foreach>}, the values of {@code <bind>} and the {@code ${}} substitutions.
+ *
+ * @since 3.5.6
+ */
+public interface ExpressionEngine {
+
+    /**
+     * Evaluates an expression against the given root.
+     *
+     * @param expression the expression
+     * @param root       the root object, usually the bindings of a {@link DynamicContext}
+     * @return the value of the expression
+     */
+    Object getValue(String expression, Object root);
+
+}
@@ -28,8 +28,23 @@ import java.util.Map;
  */
 public class ExpressionEvaluator {
 
+    private static final ExpressionEngine DEFAULT_ENGINE = new OgnlExpressionEngine();
+
     public boolean evaluateBoolean(String expression, Object parameterObject) {
-        Object value = OgnlCache.getValue(expression, parameterObject);
+        return evaluateBoolean(expression, parameterObject, DEFAULT_ENGINE);
+    }
+
+    /**
+     * Evaluates an expression as a boolean with the given engine.
+     *
+     * @param expression      the expression
+     * @param parameterObject the root object
+     * @param engine          the expression engine
+     * @return the boolean value
+     * @since 3.5.6
+     */
+    public boolean evaluateBoolean(String expression, Object parameterObject, ExpressionEngine engine) {
+        Object value = engine.getValue(expression, parameterObject);
         if (value instanceof Boolean) {
             return (Boolean) value;
         }
@@ -40,7 +55,20 @@ public class ExpressionEvaluator {
     }
 
     public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-        Object value = OgnlCache.getValue(expression, parameterObject);
+        return evaluateIterable(expression, parameterObject, DEFAULT_ENGINE);
+    }
+
+    /**
+     * Evaluates an expression as an iterable with the given engine.
+     *
+     * @param expression      the expression
+     * @param parameterObject the root object
+     * @param engine          the expression engine
+     * @return the iterable
+     * @since 3.5.6
+     */
+    public Iterable<?> evaluateIterable(String expression, Object parameterObject, ExpressionEngine engine) {
+        Object value = engine.getValue(expression, parameterObject);
         if (value == null) {
             throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
         }
@@ -17,8 +17,14 @@ package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.ArrayTypeHandler;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * @author Clinton Begin
@@ -35,8 +41,54 @@ public class ForEachSqlNode implements SqlNode {
     private final String item;
     private final String index;
     private final Configuration configuration;
+    private final Pattern itemPattern;
+    private final Pattern indexPattern;
+    private final Mode mode;
+    private final boolean padding;
 
     public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
+        this(configuration, contents, collectionExpression, index, item, open, close, separator, Mode.ITERATE);
+    }
+
+    /**
+     * Creates a foreach node.
+     *
+     * @param configuration        the configuration
+     * @param contents             the contents repeated for each element
+     * @param collectionExpression the expression of the collection
+     * @param index                the name of the index
+     * @param item                 the name of the item
+     * @param open                 the string prepended
+     * @param close                the string appended
+     * @param separator            the string between elements
+     * @param mode                 how the collection is rendered, {@code null} for {@link Mode#ITERATE}
+     * @since 3.5.6
+     */
+    public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, Mode mode) {
+        this(configuration, contents, collectionExpression, index, item, open, close, separator, mode, false);
+    }
+
+    /**
+     * Creates a foreach node.
+     * <p>
+     * With padding, the elements are repeated up to the next power of two by repeating the last one (with its
+     * index), so that a statement produces only log2(N) distinct SQL texts and statement caches are not defeated by
+     * every new collection size. This is meant for lists whose repetition does not change the result, such as
+     * {@code IN} lists.
+     *
+     * @param configuration        the configuration
+     * @param contents             the contents repeated for each element
+     * @param collectionExpression the expression of the collection
+     * @param index                the name of the index
+     * @param item                 the name of the item
+     * @param open                 the string prepended
+     * @param close                the string appended
+     * @param separator            the string between elements
+     * @param mode                 how the collection is rendered, {@code null} for {@link Mode#ITERATE}
+     * @param padding              whether the elements are padded up to the next power of two
+     * @since 3.5.6
+     */
+    public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, Mode mode, boolean padding) {
         this.evaluator = new ExpressionEvaluator();
         this.collectionExpression = collectionExpression;
         this.contents = contents;
@@ -46,6 +98,10 @@ public class ForEachSqlNode implements SqlNode {
         this.index = index;
         this.item = item;
         this.configuration = configuration;
+        this.itemPattern = Pattern.compile("^\\s*" + item + "(?![^.,:\\s])");
+        this.indexPattern = index != null ? Pattern.compile("^\\s*" + index + "(?![^.,:\\s])") : null;
+        this.mode = mode == null ? Mode.ITERATE : mode;
+        this.padding = padding;
     }
 
     private static String itemizeItem(String item, int i) {
@@ -55,44 +111,120 @@ public class ForEachSqlNode implements SqlNode {
     @Override
     public boolean apply(DynamicContext context) {
         Map<String, Object> bindings = context.getBindings();
-        final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings);
+        Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings, context.getExpressionEngine());
+        if (mode == Mode.ARRAY) {
+            applyArray(context, iterable);
+            return true;
+        }
+        // 补齐的元素重复最后一个元素及其下标
+        int lastIndex = Integer.MAX_VALUE;
+        if (padding) {
+            List<Object> elements = toList(iterable);
+            lastIndex = elements.size() - 1;
+            iterable = pad(elements);
+        }
         if (!iterable.iterator().hasNext()) {
+            context.appendShape(")");
             return true;
         }
         boolean first = true;
         applyOpen(context);
+        // 每个元素复用同一对包装上下文, 只重置前缀与序号
+        PrefixedContext prefixedContext = new PrefixedContext(context);
+        FilteredDynamicContext filteredContext = new FilteredDynamicContext(prefixedContext);
         int i = 0;
         for (Object o : iterable) {
-            DynamicContext oldContext = context;
-            if (first || separator == null) {
-                context = new PrefixedContext(context, "");
-            } else {
-                context = new PrefixedContext(context, separator);
-            }
-            int uniqueNumber = context.getUniqueNumber();
+            context.appendShape("(");
+            prefixedContext.reset(first || separator == null ? "" : separator);
+            int uniqueNumber = prefixedContext.getUniqueNumber();
             // Issue #709
             if (o instanceof Map.Entry) {
                 @SuppressWarnings("unchecked")
                 Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-                applyIndex(context, mapEntry.getKey(), uniqueNumber);
-                applyItem(context, mapEntry.getValue(), uniqueNumber);
+                applyIndex(prefixedContext, mapEntry.getKey(), uniqueNumber);
+                applyItem(prefixedContext, mapEntry.getValue(), uniqueNumber);
             } else {
-                applyIndex(context, i, uniqueNumber);
-                applyItem(context, o, uniqueNumber);
+                applyIndex(prefixedContext, Math.min(i, lastIndex), uniqueNumber);
+                applyItem(prefixedContext, o, uniqueNumber);
             }
-            contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
+            filteredContext.setIndex(uniqueNumber);
+            contents.apply(filteredContext);
             if (first) {
-                first = !((PrefixedContext) context).isPrefixApplied();
+                first = !prefixedContext.isPrefixApplied();
             }
-            context = oldContext;
             i++;
         }
         applyClose(context);
+        context.appendShape(")");
         context.getBindings().remove(item);
         context.getBindings().remove(index);
         return true;
     }
 
+    private void applyArray(DynamicContext context, Iterable<?> iterable) {
+        // 整个集合作为一个 SQL ARRAY 参数绑定, SQL 与集合大小无关
+        String name = itemizeItem(item != null ? item : "array", context.getUniqueNumber());
+        context.bind(name, toArray(iterable));
+        applyOpen(context);
+        context.appendSql("#{" + name + ",typeHandler=" + ArrayTypeHandler.class.getName() + "}");
+        applyClose(context);
+    }
+
+    private static boolean hasText(String sql) {
+        if (sql != null) {
+            for (int i = 0; i < sql.length(); i++) {
+                if (sql.charAt(i) > ' ') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<Object> toList(Iterable<?> iterable) {
+        List<Object> elements = iterable instanceof Collection ? new ArrayList<>(((Collection<?>) iterable).size()) : new ArrayList<>();
+        for (Object o : iterable) {
+            elements.add(o);
+        }
+        return elements;
+    }
+
+    private static List<Object> pad(List<Object> elements) {
+        int size = elements.size();
+        if (size == 0) {
+            return elements;
+        }
+        int bucket = Integer.highestOneBit(size);
+        if (bucket < size) {
+            bucket <<= 1;
+        }
+        Object last = elements.get(size - 1);
+        for (int i = size; i < bucket; i++) {
+            elements.add(last);
+        }
+        return elements;
+    }
+
+    private static Object[] toArray(Iterable<?> iterable) {
+        List<Object> values = new ArrayList<>();
+        Class<?> componentType = null;
+        boolean mixed = false;
+        for (Object o : iterable) {
+            Object value = o instanceof Map.Entry ? ((Map.Entry<?, ?>) o).getValue() : o;
+            values.add(value);
+            if (value != null) {
+                if (componentType == null) {
+                    componentType = value.getClass();
+                } else if (componentType != value.getClass()) {
+                    mixed = true;
+                }
+            }
+        }
+        // 元素类型一致时使用具体类型的数组, ArrayTypeHandler 据此确定 SQL ARRAY 的元素类型
+        Class<?> type = componentType == null || mixed ? Object.class : componentType;
+        return values.toArray((Object[]) Array.newInstance(type, values.size()));
+    }
+
     private void applyIndex(DynamicContext context, Object o, int i) {
         if (index != null) {
             context.bind(index, o);
@@ -119,18 +251,18 @@ public class ForEachSqlNode implements SqlNode {
         }
     }
 
-    private static class FilteredDynamicContext extends DynamicContext {
+    private class FilteredDynamicContext extends DynamicContext {
         private final DynamicContext delegate;
-        private final int index;
-        private final String itemIndex;
-        private final String item;
+        private final GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> "#{" + itemize(content) + "}");
+        private int index;
 
-        public FilteredDynamicContext(Configuration configuration, DynamicContext delegate, String itemIndex, String item, int i) {
-            super(configuration, null);
+        public FilteredDynamicContext(DynamicContext delegate) {
+            super(delegate);
             this.delegate = delegate;
-            this.index = i;
-            this.itemIndex = itemIndex;
-            this.item = item;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
         }
 
         @Override
@@ -150,15 +282,43 @@ public class ForEachSqlNode implements SqlNode {
 
         @Override
         public void appendSql(String sql) {
-            GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-                String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-                if (itemIndex != null && newContent.equals(content)) {
-                    newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-                }
-                return "#{" + newContent + "}";
-            });
+            if (sql != null && sql.indexOf("#{") < 0) {
+                delegate.appendSql(sql);
+            } else {
+                delegate.appendSql(parser.parse(sql));
+            }
+        }
+
+        @Override
+        public void appendSql(String sql, List<String> parameterContents) {
+            List<String> itemizedContents = new ArrayList<>(parameterContents.size());
+            for (String content : parameterContents) {
+                itemizedContents.add(itemize(content));
+            }
+            delegate.appendSql(sql, itemizedContents);
+        }
+
+        @Override
+        public boolean isCompiled() {
+            return delegate.isCompiled();
+        }
 
-            delegate.appendSql(parser.parse(sql));
+        @Override
+        public boolean isShapeProbe() {
+            return delegate.isShapeProbe();
+        }
+
+        @Override
+        public void appendShape(String token) {
+            delegate.appendShape(token);
+        }
+
+        private String itemize(String content) {
+            String newContent = itemPattern.matcher(content).replaceFirst(itemizeItem(item, index));
+            if (indexPattern != null && newContent.equals(content)) {
+                newContent = indexPattern.matcher(content).replaceFirst(itemizeItem(ForEachSqlNode.this.index, index));
+            }
+            return newContent;
         }
 
         @Override
@@ -171,12 +331,15 @@ public class ForEachSqlNode implements SqlNode {
 
     private class PrefixedContext extends DynamicContext {
         private final DynamicContext delegate;
-        private final String prefix;
+        private String prefix;
         private boolean prefixApplied;
 
-        public PrefixedContext(DynamicContext delegate, String prefix) {
-            super(configuration, null);
+        public PrefixedContext(DynamicContext delegate) {
+            super(delegate);
             this.delegate = delegate;
+        }
+
+        public void reset(String prefix) {
             this.prefix = prefix;
             this.prefixApplied = false;
         }
@@ -197,13 +360,37 @@ public class ForEachSqlNode implements SqlNode {
 
         @Override
         public void appendSql(String sql) {
-            if (!prefixApplied && sql != null && sql.trim().length() > 0) {
+            if (!prefixApplied && hasText(sql)) {
                 delegate.appendSql(prefix);
                 prefixApplied = true;
             }
             delegate.appendSql(sql);
         }
 
+        @Override
+        public void appendSql(String sql, List<String> parameterContents) {
+            if (!prefixApplied && hasText(sql)) {
+                delegate.appendSql(prefix);
+                prefixApplied = true;
+            }
+            delegate.appendSql(sql, parameterContents);
+        }
+
+        @Override
+        public boolean isCompiled() {
+            return delegate.isCompiled();
+        }
+
+        @Override
+        public boolean isShapeProbe() {
+            return delegate.isShapeProbe();
+        }
+
+        @Override
+        public void appendShape(String token) {
+            delegate.appendShape(token);
+        }
+
         @Override
         public String getSql() {
             return delegate.getSql();
@@ -215,4 +402,22 @@ public class ForEachSqlNode implements SqlNode {
         }
     }
 
+    /**
+     * How a foreach renders its collection.
+     *
+     * @since 3.5.6
+     */
+    public enum Mode {
+        /**
+         * Repeats the contents for each element, binding one parameter per placeholder. This is the default.
+         */
+        ITERATE,
+        /**
+         * Binds the whole collection as a single SQL ARRAY parameter through {@link ArrayTypeHandler}, e.g.
+         * {@code id = ANY(<foreach collection="ids" mode="array"/>)}. The contents are ignored and the generated SQL
+         * is the same whatever the size of the collection. Requires a database and driver supporting arrays.
+         */
+        ARRAY
+    }
+
 }
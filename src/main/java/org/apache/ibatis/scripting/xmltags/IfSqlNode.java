@@ -31,7 +31,9 @@ public class IfSqlNode implements SqlNode {
 
     @Override
     public boolean apply(DynamicContext context) {
-        if (evaluator.evaluateBoolean(test, context.getBindings())) {
+        boolean matched = evaluator.evaluateBoolean(test, context.getBindings(), context.getExpressionEngine());
+        context.appendShape(matched ? "1" : "0");
+        if (matched) {
             contents.apply(context);
             return true;
         }
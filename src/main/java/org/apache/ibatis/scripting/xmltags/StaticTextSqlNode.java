@@ -15,11 +15,18 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author Clinton Begin
  */
 public class StaticTextSqlNode implements SqlNode {
     private final String text;
+    // 编译模式下使用, 第一次用到时把 #{} 替换为 ? 并记录其内容
+    private volatile String compiledText;
+    private volatile List<String> parameterContents;
 
     public StaticTextSqlNode(String text) {
         this.text = text;
@@ -27,8 +34,22 @@ public class StaticTextSqlNode implements SqlNode {
 
     @Override
     public boolean apply(DynamicContext context) {
-        context.appendSql(text);
+        if (context.isShapeProbe()) {
+            return true;
+        }
+        if (context.isCompiled()) {
+            List<String> contents = parameterContents;
+            if (contents == null) {
+                contents = new ArrayList<>();
+                compiledText = DynamicContext.compileSql(text, contents);
+                contents = Collections.unmodifiableList(contents);
+                parameterContents = contents;
+            }
+            context.appendSql(compiledText, contents);
+        } else {
+            context.appendSql(text);
+        }
         return true;
     }
 
-}
\ No newline at end of file
+}
@@ -51,7 +51,13 @@ public class TextSqlNode implements SqlNode {
     @Override
     public boolean apply(DynamicContext context) {
         GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-        context.appendSql(parser.parse(text));
+        String sql = parser.parse(text);
+        if (context.isShapeProbe()) {
+            // ${} 的取值直接决定 SQL 文本, 带上长度前缀避免相邻取值产生歧义
+            context.appendShape("$" + sql.length() + ":" + sql);
+        } else {
+            context.appendSql(sql);
+        }
         return true;
     }
 
@@ -77,7 +83,7 @@ public class TextSqlNode implements SqlNode {
             } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
                 context.getBindings().put("value", parameter);
             }
-            Object value = OgnlCache.getValue(content, context.getBindings());
+            Object value = context.getExpressionEngine().getValue(content, context.getBindings());
             String srtValue = value == null ? "" : String.valueOf(value); // issue #274 return "" instead of "null"
             checkInjection(srtValue);
             return srtValue;
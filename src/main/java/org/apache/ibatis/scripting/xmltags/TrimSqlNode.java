@@ -30,6 +30,8 @@ public class TrimSqlNode implements SqlNode {
     private final List<String> prefixesToOverride;
     private final List<String> suffixesToOverride;
     private final Configuration configuration;
+    private final int prefixOverrideLength;
+    private final int suffixOverrideLength;
 
     public TrimSqlNode(Configuration configuration, SqlNode contents, String prefix, String prefixesToOverride, String suffix, String suffixesToOverride) {
         this(configuration, contents, prefix, parseOverrides(prefixesToOverride), suffix, parseOverrides(suffixesToOverride));
@@ -42,6 +44,59 @@ public class TrimSqlNode implements SqlNode {
         this.suffix = suffix;
         this.suffixesToOverride = suffixesToOverride;
         this.configuration = configuration;
+        this.prefixOverrideLength = maxLength(prefixesToOverride);
+        this.suffixOverrideLength = maxLength(suffixesToOverride);
+    }
+
+    private static int maxLength(List<String> overrides) {
+        int max = 0;
+        if (overrides != null) {
+            for (String override : overrides) {
+                max = Math.max(max, override.length());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Removes the leading and trailing characters that {@link String#trim()} would remove, in place.
+     */
+    private static void trim(StringBuilder sql) {
+        int end = sql.length();
+        while (end > 0 && sql.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        sql.setLength(end);
+        int start = 0;
+        while (start < end && sql.charAt(start) <= ' ') {
+            start++;
+        }
+        if (start > 0) {
+            sql.delete(0, start);
+        }
+    }
+
+    /**
+     * Upper cases enough leading characters to match any of the prefix overrides. Upper casing maps each code point
+     * independently, so the result is a prefix of the upper cased whole SQL.
+     */
+    private static String upperCaseHead(StringBuilder sql, int length) {
+        int end = Math.min(sql.length(), length);
+        if (end < sql.length() && end > 0 && Character.isHighSurrogate(sql.charAt(end - 1))) {
+            end++;
+        }
+        return sql.substring(0, end).toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Upper cases enough trailing characters to match any of the suffix overrides.
+     */
+    private static String upperCaseTail(StringBuilder sql, int length) {
+        int start = Math.max(0, sql.length() - length);
+        if (start > 0 && start < sql.length() && Character.isLowSurrogate(sql.charAt(start))) {
+            start--;
+        }
+        return sql.substring(start).toUpperCase(Locale.ENGLISH);
     }
 
     private static List<String> parseOverrides(String overrides) {
@@ -69,23 +124,34 @@ public class TrimSqlNode implements SqlNode {
         private boolean prefixApplied;
         private boolean suffixApplied;
         private StringBuilder sqlBuffer;
+        private final List<String> parameterContents;
 
         public FilteredDynamicContext(DynamicContext delegate) {
-            super(configuration, null);
+            super(delegate);
             this.delegate = delegate;
             this.prefixApplied = false;
             this.suffixApplied = false;
             this.sqlBuffer = new StringBuilder();
+            this.parameterContents = delegate.isCompiled() ? new ArrayList<>() : null;
         }
 
         public void applyAll() {
-            sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-            String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-            if (trimmedUppercaseSql.length() > 0) {
-                applyPrefix(sqlBuffer, trimmedUppercaseSql);
-                applySuffix(sqlBuffer, trimmedUppercaseSql);
+            if (delegate.isShapeProbe()) {
+                return;
+            }
+            trim(sqlBuffer);
+            if (sqlBuffer.length() > 0) {
+                // 只对可能被覆盖的首尾部分转大写, 而不是整个缓冲区
+                String trimmedUppercaseHead = upperCaseHead(sqlBuffer, prefixOverrideLength);
+                String trimmedUppercaseTail = upperCaseTail(sqlBuffer, suffixOverrideLength);
+                applyPrefix(sqlBuffer, trimmedUppercaseHead);
+                applySuffix(sqlBuffer, trimmedUppercaseTail);
+            }
+            if (parameterContents != null) {
+                delegate.appendSql(sqlBuffer.toString(), parameterContents);
+            } else {
+                delegate.appendSql(sqlBuffer.toString());
             }
-            delegate.appendSql(sqlBuffer.toString());
         }
 
         @Override
@@ -105,7 +171,32 @@ public class TrimSqlNode implements SqlNode {
 
         @Override
         public void appendSql(String sql) {
+            if (parameterContents != null && sql != null) {
+                sqlBuffer.append(compileSql(sql, parameterContents));
+            } else {
+                sqlBuffer.append(sql);
+            }
+        }
+
+        @Override
+        public void appendSql(String sql, List<String> parameterContents) {
             sqlBuffer.append(sql);
+            this.parameterContents.addAll(parameterContents);
+        }
+
+        @Override
+        public boolean isCompiled() {
+            return parameterContents != null;
+        }
+
+        @Override
+        public boolean isShapeProbe() {
+            return delegate.isShapeProbe();
+        }
+
+        @Override
+        public void appendShape(String token) {
+            delegate.appendShape(token);
         }
 
         @Override
@@ -113,12 +204,12 @@ public class TrimSqlNode implements SqlNode {
             return delegate.getSql();
         }
 
-        private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
+        private void applyPrefix(StringBuilder sql, String trimmedUppercaseHead) {
             if (!prefixApplied) {
                 prefixApplied = true;
                 if (prefixesToOverride != null) {
                     for (String toRemove : prefixesToOverride) {
-                        if (trimmedUppercaseSql.startsWith(toRemove)) {
+                        if (trimmedUppercaseHead.startsWith(toRemove)) {
                             sql.delete(0, toRemove.trim().length());
                             break;
                         }
@@ -131,12 +222,12 @@ public class TrimSqlNode implements SqlNode {
             }
         }
 
-        private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
+        private void applySuffix(StringBuilder sql, String trimmedUppercaseTail) {
             if (!suffixApplied) {
                 suffixApplied = true;
                 if (suffixesToOverride != null) {
                     for (String toRemove : suffixesToOverride) {
-                        if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
+                        if (trimmedUppercaseTail.endsWith(toRemove) || trimmedUppercaseTail.endsWith(toRemove.trim())) {
                             int start = sql.length() - toRemove.trim().length();
                             int end = sql.length();
                             sql.delete(start, end);
@@ -17,8 +17,14 @@ package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.ParameterExpression;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.w3c.dom.Node;
@@ -27,7 +33,9 @@ import org.w3c.dom.NodeList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 专门用来解析各个mapper.xml文件中的sql语句标签, 如：
@@ -55,6 +63,10 @@ public class XMLScriptBuilder extends BaseBuilder {
      */
     private final Map<String, NodeHandler> nodeHandlerMap = new HashMap<>();
     private boolean isDynamic;
+    // 是否有 trim/where/set 在构建期被折叠为静态文本
+    private boolean isFolded;
+    // 当前所在的 trim/where/set 层数
+    private int trimDepth;
 
     public XMLScriptBuilder(Configuration configuration, XNode context) {
         this(configuration, context, null);
@@ -90,12 +102,93 @@ public class XMLScriptBuilder extends BaseBuilder {
         SqlSource sqlSource;
         if (isDynamic) {
             sqlSource = new DynamicSqlSource(configuration, rootSqlNode);
+        } else if (isFolded) {
+            sqlSource = foldStatement(rootSqlNode);
         } else {
             sqlSource = new RawSqlSource(configuration, rootSqlNode, parameterType);
         }
         return sqlSource;
     }
 
+    /**
+     * 语句中的 trim/where/set 都已折叠为静态文本, 改用 RawSqlSource 在构建期一次性解析.
+     * 但 RawSqlSource 没有 _parameter、_databaseId 这些附加参数, 引用了它们的语句仍按动态语句处理
+     */
+    private SqlSource foldStatement(SqlNode rootSqlNode) {
+        DynamicContext context = new DynamicContext(configuration, null);
+        rootSqlNode.apply(context);
+        String sql = context.getSql();
+        if (referencesAdditionalParameters(sql)) {
+            return new DynamicSqlSource(configuration, rootSqlNode);
+        }
+        configuration.addFoldedStatement();
+        // 日志实现可能在 settings 中指定, 所以在这里才获取 Log
+        Log log = LogFactory.getLog(XMLScriptBuilder.class);
+        if (log.isDebugEnabled()) {
+            String id = this.context.getStringAttribute("id");
+            log.debug("Folded " + (id == null ? "a dynamic script" : "statement '" + id + "'") + " into raw SQL: " + sql);
+        }
+        return new RawSqlSource(configuration, sql, parameterType);
+    }
+
+    /**
+     * 逐个解析 #{} 占位符, 判断其属性的第一段是否为 _parameter 或 _databaseId, 而不是在整条 sql 中查找子串
+     */
+    private boolean referencesAdditionalParameters(String sql) {
+        boolean[] found = new boolean[1];
+        new GenericTokenParser("#{", "}", content -> {
+            String property = new ParameterExpression(content).get("property");
+            if (property != null) {
+                String name = new PropertyTokenizer(property).getName();
+                if (DynamicContext.PARAMETER_OBJECT_KEY.equals(name) || DynamicContext.DATABASE_ID_KEY.equals(name)) {
+                    found[0] = true;
+                }
+            }
+            return "";
+        }).parse(sql);
+        return found[0];
+    }
+
+    /**
+     * 开启 shrinkWhitespacesInSql 时, 在构建期就把静态文本中连续的空白合并为一个空格, 执行时剩下的工作就很少了.
+     * trim/where/set 内的文本保持原样, 因为它们的 prefixOverrides/suffixOverrides 可能包含空白字符
+     */
+    private String staticText(String text) {
+        if (configuration.isShrinkWhitespacesInSql() && trimDepth == 0) {
+            return SqlSourceBuilder.collapseWhitespaces(text);
+        }
+        return text;
+    }
+
+    /**
+     * 解析 trim/where/set 标签. 标签体内没有任何分支时, 每次执行的结果都相同, 可以在构建期直接求出文本
+     *
+     * @return 标签是否保留为动态节点, 被折叠时为 false
+     */
+    private boolean handleTrimmedNode(XNode nodeToHandle, List<SqlNode> targetContents, Function<SqlNode, TrimSqlNode> factory) {
+        boolean dynamic = isDynamic;
+        isDynamic = false;
+        trimDepth++;
+        TrimSqlNode trim = factory.apply(parseDynamicTags(nodeToHandle));
+        trimDepth--;
+        boolean folded = !isDynamic && configuration.isFoldConstantSqlNodes();
+        if (folded) {
+            StringBuilder text = new StringBuilder();
+            trim.apply(new DynamicContext(configuration, null) {
+                @Override
+                public void appendSql(String sql) {
+                    text.append(sql);
+                }
+            });
+            targetContents.add(new StaticTextSqlNode(staticText(text.toString())));
+            isFolded = true;
+        } else {
+            targetContents.add(trim);
+        }
+        isDynamic = dynamic;
+        return !folded;
+    }
+
     /**
      * 将标签中的sql取出来
      * @param node xml标签节点
@@ -117,7 +210,7 @@ public class XMLScriptBuilder extends BaseBuilder {
                     contents.add(textSqlNode);
                     isDynamic = true;
                 } else {
-                    contents.add(new StaticTextSqlNode(data));
+                    contents.add(new StaticTextSqlNode(staticText(data)));
                 }
             } else if (child.getNode().getNodeType() == Node.ELEMENT_NODE) { // issue #628
                 String nodeName = child.getNode().getNodeName();
@@ -125,8 +218,10 @@ public class XMLScriptBuilder extends BaseBuilder {
                 if (handler == null) {
                     throw new BuilderException("Unknown element <" + nodeName + "> in SQL statement.");
                 }
-                handler.handleNode(child, contents);
-                isDynamic = true;
+                // 只有被折叠的 trim/where/set 不会使语句成为动态的
+                if (handler.handleNode(child, contents)) {
+                    isDynamic = true;
+                }
             }
         }
         return new MixedSqlNode(contents);
@@ -141,8 +236,9 @@ public class XMLScriptBuilder extends BaseBuilder {
          * 语句块处理逻辑
          * @param nodeToHandle 需要处理的语句块
          * @param targetContents 处理完的sql节点放到这个集合
+         * @return 生成的sql节点是否为动态的
          */
-        void handleNode(XNode nodeToHandle, List<SqlNode> targetContents);
+        boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents);
     }
 
     private class BindHandler implements NodeHandler {
@@ -151,11 +247,12 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
             final String name = nodeToHandle.getStringAttribute("name");
             final String expression = nodeToHandle.getStringAttribute("value");
             final VarDeclSqlNode node = new VarDeclSqlNode(name, expression);
             targetContents.add(node);
+            return true;
         }
     }
 
@@ -165,14 +262,13 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
-            MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
             String prefix = nodeToHandle.getStringAttribute("prefix");
             String prefixOverrides = nodeToHandle.getStringAttribute("prefixOverrides");
             String suffix = nodeToHandle.getStringAttribute("suffix");
             String suffixOverrides = nodeToHandle.getStringAttribute("suffixOverrides");
-            TrimSqlNode trim = new TrimSqlNode(configuration, mixedSqlNode, prefix, prefixOverrides, suffix, suffixOverrides);
-            targetContents.add(trim);
+            return handleTrimmedNode(nodeToHandle, targetContents,
+                contents -> new TrimSqlNode(configuration, contents, prefix, prefixOverrides, suffix, suffixOverrides));
         }
     }
 
@@ -182,10 +278,8 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
-            MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
-            WhereSqlNode where = new WhereSqlNode(configuration, mixedSqlNode);
-            targetContents.add(where);
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+            return handleTrimmedNode(nodeToHandle, targetContents, contents -> new WhereSqlNode(configuration, contents));
         }
     }
 
@@ -195,10 +289,8 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
-            MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
-            SetSqlNode set = new SetSqlNode(configuration, mixedSqlNode);
-            targetContents.add(set);
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+            return handleTrimmedNode(nodeToHandle, targetContents, contents -> new SetSqlNode(configuration, contents));
         }
     }
 
@@ -208,7 +300,7 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
             MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
             String collection = nodeToHandle.getStringAttribute("collection");
             String item = nodeToHandle.getStringAttribute("item");
@@ -216,8 +308,12 @@ public class XMLScriptBuilder extends BaseBuilder {
             String open = nodeToHandle.getStringAttribute("open");
             String close = nodeToHandle.getStringAttribute("close");
             String separator = nodeToHandle.getStringAttribute("separator");
-            ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+            String mode = nodeToHandle.getStringAttribute("mode");
+            boolean padding = nodeToHandle.getBooleanAttribute("padding", false);
+            ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator,
+                mode == null ? null : ForEachSqlNode.Mode.valueOf(mode.toUpperCase(Locale.ENGLISH)), padding);
             targetContents.add(forEachSqlNode);
+            return true;
         }
     }
 
@@ -227,11 +323,12 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
             MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
             String test = nodeToHandle.getStringAttribute("test");
             IfSqlNode ifSqlNode = new IfSqlNode(mixedSqlNode, test);
             targetContents.add(ifSqlNode);
+            return true;
         }
     }
 
@@ -241,9 +338,10 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
             MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
             targetContents.add(mixedSqlNode);
+            return true;
         }
     }
 
@@ -253,13 +351,14 @@ public class XMLScriptBuilder extends BaseBuilder {
         }
 
         @Override
-        public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
+        public boolean handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
             List<SqlNode> whenSqlNodes = new ArrayList<>();
             List<SqlNode> otherwiseSqlNodes = new ArrayList<>();
             handleWhenOtherwiseNodes(nodeToHandle, whenSqlNodes, otherwiseSqlNodes);
             SqlNode defaultSqlNode = getDefaultSqlNode(otherwiseSqlNodes);
             ChooseSqlNode chooseSqlNode = new ChooseSqlNode(whenSqlNodes, defaultSqlNode);
             targetContents.add(chooseSqlNode);
+            return true;
         }
 
         private void handleWhenOtherwiseNodes(XNode chooseSqlNode, List<SqlNode> ifSqlNodes, List<SqlNode> defaultSqlNodes) {
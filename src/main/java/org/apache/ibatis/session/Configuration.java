@@ -18,6 +18,7 @@ package org.apache.ibatis.session;
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.builder.ParameterPlaceholder;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
@@ -63,7 +64,11 @@ import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
+import org.apache.ibatis.scripting.ShapeCache;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompiledExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -74,6 +79,7 @@ import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 /**
@@ -103,6 +109,12 @@ public class Configuration {
      */
     protected final Set<String> loadedResources = new HashSet<>();
 
+    /**
+     * 按文本缓存的 #{} 参数及其参数映射, 容量由 parameterMappingCacheSize 决定, 满了之后淘汰最久未使用的.
+     * 占位符只按文本区分, 所以 ShapeCache 的参数类型固定为 String
+     */
+    protected volatile ShapeCache<ParameterPlaceholder> parameterPlaceholders = new ShapeCache<>(1024);
+
     protected final Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
 
     /**
@@ -120,6 +132,8 @@ public class Configuration {
      * namespace which the actual cache is bound to.
      */
     protected final Map<String, String> cacheRefMap = new HashMap<>();
+    // 构建期折叠为 RawSqlSource 的动态语句数量
+    protected final AtomicInteger foldedStatementCount = new AtomicInteger();
     protected Environment environment;
     // 允许在嵌套语句中使用分页（RowBounds）。如果允许使用则设置为 false
     protected boolean safeRowBoundsEnabled;
@@ -152,6 +166,8 @@ public class Configuration {
     // 指定VFS实现
     protected Class<? extends VFS> vfsImpl;
     protected Class<?> defaultSqlProviderType;
+    // 动态SQL中 test/bind/foreach/${} 表达式的求值引擎
+    protected ExpressionEngine expressionEngine = new OgnlExpressionEngine();
     // 本地缓存机制（Local Cache）防止循环引用（circular references）和加速重复嵌套查询。
     // 默认值为 SESSION，这种情况下会缓存一个会话中执行的所有查询。
     // 若设置值为 STATEMENT，本地会话仅用在语句执行上，对相同 SqlSession 的不同调用将不会共享数据
@@ -166,6 +182,24 @@ public class Configuration {
     protected Integer defaultFetchSize;
     // 根据语句设置省略滚动策略时指定
     protected ResultSetType defaultResultSetType;
+    // 游标在后台线程预先读取并映射的行数, 为空或者不大于0表示不开启
+    protected Integer cursorPrefetchSize;
+    // 并行映射结果时每个任务处理的行数, 为空或者不大于0表示不开启
+    protected Integer parallelResultMappingChunkSize;
+    // 是否为扁平的 resultMap 生成行映射器, 直接调用构造方法和 setter 方法, 并按下标读取列
+    protected boolean useCompiledRowMappers;
+    // 是否在每条语句上保留各个结果集的布局(映射计划), 列不变时直接复用
+    protected boolean cacheResultSetLayouts = true;
+    // 是否根据 SQL 的 ORDER BY 判断嵌套结果是否按父对象 id 排序, 是则像 resultOrdered=true 一样及时释放已完成的父对象
+    protected boolean detectResultOrdered;
+    // 是否把动态 SQL 中的 #{} 在拼接时直接替换为 ? 并记录参数, 不再在每次调用时重新解析拼好的 SQL
+    protected boolean useCompiledDynamicSql;
+    // 动态SQL按分支走向缓存生成的SQL与参数映射, 命中时只重新绑定参数值
+    protected boolean useDynamicSqlShapeCache;
+    // 构建期把不含分支的 trim/where/set 折叠为静态文本, 整条语句都不含分支时降级为 RawSqlSource
+    protected boolean foldConstantSqlNodes;
+    // 缓存解析过的 #{} 参数及其参数映射的最大条数, 0 及以下表示不缓存
+    protected int parameterMappingCacheSize = 1024;
     // 配置默认的执行器
     protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
     // 指定 MyBatis 应如何自动映射列到字段或属性
@@ -213,6 +247,9 @@ public class Configuration {
         typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
         typeAliasRegistry.registerAlias("RAW", RawLanguageDriver.class);
 
+        typeAliasRegistry.registerAlias("OGNL", OgnlExpressionEngine.class);
+        typeAliasRegistry.registerAlias("COMPILED", CompiledExpressionEngine.class);
+
         typeAliasRegistry.registerAlias("SLF4J", Slf4jImpl.class);
         typeAliasRegistry.registerAlias("COMMONS_LOGGING", JakartaCommonsLoggingImpl.class);
         typeAliasRegistry.registerAlias("LOG4J", Log4jImpl.class);
@@ -279,6 +316,27 @@ public class Configuration {
         this.defaultSqlProviderType = defaultSqlProviderType;
     }
 
+    /**
+     * Gets the engine evaluating the expressions of dynamic SQL.
+     *
+     * @return the expression engine
+     * @since 3.5.6
+     */
+    public ExpressionEngine getExpressionEngine() {
+        return expressionEngine;
+    }
+
+    /**
+     * Sets the engine evaluating the expressions of dynamic SQL. Defaults to {@link OgnlExpressionEngine}.
+     *
+     * @param expressionEngine
+     *          the expression engine, null to restore the default
+     * @since 3.5.6
+     */
+    public void setExpressionEngine(ExpressionEngine expressionEngine) {
+        this.expressionEngine = expressionEngine == null ? new OgnlExpressionEngine() : expressionEngine;
+    }
+
     public boolean isCallSettersOnNulls() {
         return callSettersOnNulls;
     }
@@ -513,6 +571,243 @@ public class Configuration {
         this.defaultResultSetType = defaultResultSetType;
     }
 
+    /**
+     * Gets the number of rows a cursor reads and maps ahead on a background thread.
+     *
+     * @return the prefetch size, {@code null} when prefetching is disabled
+     * @since 3.5.6
+     */
+    public Integer getCursorPrefetchSize() {
+        return cursorPrefetchSize;
+    }
+
+    /**
+     * Sets the number of rows a cursor reads and maps ahead on a background thread. Prefetching is only applied
+     * to result maps without nested selects.
+     *
+     * @param cursorPrefetchSize
+     *          the prefetch size, {@code null} or a non positive value disables prefetching
+     * @since 3.5.6
+     */
+    public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+        this.cursorPrefetchSize = cursorPrefetchSize;
+    }
+
+    /**
+     * Gets the number of rows mapped per task when flat result maps are mapped in parallel.
+     *
+     * @return the chunk size, {@code null} when results are mapped on the calling thread
+     * @since 3.5.6
+     */
+    public Integer getParallelResultMappingChunkSize() {
+        return parallelResultMappingChunkSize;
+    }
+
+    /**
+     * Sets the number of rows mapped per task when flat result maps are mapped in parallel. Column values are still
+     * read on the calling thread; creating result objects and setting their properties runs on the common fork-join
+     * pool, so the {@link ObjectFactory} and {@link ObjectWrapperFactory} in use must be thread-safe. Result maps
+     * with nested result maps, nested selects or constructor mappings, and cursors, are always mapped on the
+     * calling thread.
+     *
+     * @param parallelResultMappingChunkSize
+     *          the chunk size, {@code null} or a non positive value disables parallel mapping
+     * @since 3.5.6
+     */
+    public void setParallelResultMappingChunkSize(Integer parallelResultMappingChunkSize) {
+        this.parallelResultMappingChunkSize = parallelResultMappingChunkSize;
+    }
+
+    /**
+     * Returns whether rows of flat result maps are mapped by generated row mappers.
+     *
+     * @return true if compiled row mappers are used
+     * @since 3.5.6
+     */
+    public boolean isUseCompiledRowMappers() {
+        return useCompiledRowMappers;
+    }
+
+    /**
+     * Sets whether rows of flat result maps (no nested result maps, nested selects or constructor mappings) are
+     * mapped by row mappers generated once per result map and column layout, which read columns by index and call
+     * the constructor and setters of the result type directly. Other result maps use the reflective path.
+     *
+     * @param useCompiledRowMappers
+     *          true to use compiled row mappers
+     * @since 3.5.6
+     */
+    public void setUseCompiledRowMappers(boolean useCompiledRowMappers) {
+        this.useCompiledRowMappers = useCompiledRowMappers;
+    }
+
+    /**
+     * Gets whether statements keep the layouts and mapping plans of their result sets.
+     *
+     * @return true if result set layouts are cached
+     * @since 3.5.6
+     */
+    public boolean isCacheResultSetLayouts() {
+        return cacheResultSetLayouts;
+    }
+
+    /**
+     * Sets whether statements keep the layouts of their result sets. A layout holds the mapping plans built for the
+     * columns of one result set (type handlers, column indexes, auto mappings and row mappers per result map). Each
+     * statement keeps the last layout of each of its result sets and reuses it while the columns keep the same names
+     * and types. When disabled, plans are rebuilt for each result set.
+     *
+     * @param cacheResultSetLayouts
+     *          if result set layouts are cached
+     * @since 3.5.6
+     */
+    public void setCacheResultSetLayouts(boolean cacheResultSetLayouts) {
+        this.cacheResultSetLayouts = cacheResultSetLayouts;
+    }
+
+    /**
+     * Returns whether statements with nested result maps are treated as result ordered when their SQL orders the rows
+     * by the id columns of the result map.
+     *
+     * @return true if the ordering is detected
+     * @since 3.5.6
+     */
+    public boolean isDetectResultOrdered() {
+        return detectResultOrdered;
+    }
+
+    /**
+     * Sets whether the ordering of statements with nested result maps is detected from their SQL. When the top level
+     * ORDER BY clause starts with the id columns of the result map, the statement is handled as if it was declared with
+     * resultOrdered=true: each parent object is released as soon as its rows are consumed, which keeps the memory
+     * bounded when streaming to a ResultHandler or a Cursor.
+     *
+     * @param detectResultOrdered
+     *          true to detect the ordering
+     * @since 3.5.6
+     */
+    public void setDetectResultOrdered(boolean detectResultOrdered) {
+        this.detectResultOrdered = detectResultOrdered;
+    }
+
+    /**
+     * Returns whether dynamic SQL is generated in compiled mode.
+     *
+     * @return true if dynamic SQL is compiled
+     * @since 3.5.6
+     */
+    public boolean isUseCompiledDynamicSql() {
+        return useCompiledDynamicSql;
+    }
+
+    /**
+     * Sets whether dynamic SQL is generated in compiled mode. In this mode the static text of a dynamic statement is
+     * split into SQL and #{...} placeholders once, and each call emits the final SQL with ? markers and the parameter
+     * placeholders in a single pass, instead of generating SQL with #{...} placeholders and parsing it again.
+     *
+     * @param useCompiledDynamicSql
+     *          true to compile dynamic SQL
+     * @since 3.5.6
+     */
+    public void setUseCompiledDynamicSql(boolean useCompiledDynamicSql) {
+        this.useCompiledDynamicSql = useCompiledDynamicSql;
+    }
+
+    /**
+     * Returns whether dynamic statements reuse the SQL and parameter mappings generated for the same branch
+     * combination.
+     *
+     * @return true if enabled
+     * @since 3.5.6
+     */
+    public boolean isUseDynamicSqlShapeCache() {
+        return useDynamicSqlShapeCache;
+    }
+
+    /**
+     * Sets whether dynamic statements reuse the SQL and parameter mappings generated for the same branch combination.
+     *
+     * @param useDynamicSqlShapeCache
+     *          the use dynamic sql shape cache
+     * @since 3.5.6
+     */
+    public void setUseDynamicSqlShapeCache(boolean useDynamicSqlShapeCache) {
+        this.useDynamicSqlShapeCache = useDynamicSqlShapeCache;
+    }
+
+    /**
+     * Gets whether trim, where and set elements without any branch are folded into static text when statements are
+     * built, so that statements left without branches become raw SQL sources.
+     *
+     * @return true if fold constant sql nodes
+     * @since 3.5.6
+     */
+    public boolean isFoldConstantSqlNodes() {
+        return foldConstantSqlNodes;
+    }
+
+    /**
+     * Sets whether trim, where and set elements without any branch are folded into static text when statements are
+     * built. A statement left without any branch is built as a raw SQL source, whose parameter mappings are resolved
+     * from the declared parameter type once instead of from the runtime parameter on every call.
+     *
+     * @param foldConstantSqlNodes
+     *          if fold constant sql nodes
+     * @since 3.5.6
+     */
+    public void setFoldConstantSqlNodes(boolean foldConstantSqlNodes) {
+        this.foldConstantSqlNodes = foldConstantSqlNodes;
+    }
+
+    /**
+     * Returns the maximum number of parsed parameter placeholders kept with their parameter mappings.
+     *
+     * @return the cache size
+     * @since 3.5.6
+     */
+    public int getParameterMappingCacheSize() {
+        return parameterMappingCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of parsed parameter placeholders kept by this configuration. A placeholder holds the
+     * parsed text of one {@code #{...}} and the parameter mappings resolved from it per parameter type, so dynamic
+     * statements do not parse and resolve their placeholders on every call. Placeholders of foreach items are kept once
+     * per item, whatever the iteration. Once the limit is reached, adding a placeholder evicts the one least recently
+     * used. A value of zero or less disables the cache.
+     *
+     * @param parameterMappingCacheSize
+     *          the cache size
+     * @since 3.5.6
+     */
+    public void setParameterMappingCacheSize(int parameterMappingCacheSize) {
+        this.parameterMappingCacheSize = parameterMappingCacheSize;
+        this.parameterPlaceholders = new ShapeCache<>(parameterMappingCacheSize);
+    }
+
+    /**
+     * Gets the cached parameter placeholder with the given text.
+     *
+     * @param content
+     *          the text between {@code #{} and {@code }}, with the iteration number of foreach items removed
+     * @return the placeholder, or null if none is cached
+     * @since 3.5.6
+     */
+    public ParameterPlaceholder getParameterPlaceholder(String content) {
+        return parameterPlaceholders.get(String.class, content);
+    }
+
+    /**
+     * Caches a parameter placeholder under its text, evicting the least recently used one if the cache is full.
+     *
+     * @param placeholder
+     *          the placeholder
+     * @since 3.5.6
+     */
+    public void addParameterPlaceholder(ParameterPlaceholder placeholder) {
+        parameterPlaceholders.put(String.class, placeholder.getContent(), placeholder);
+    }
+
     public boolean isUseColumnLabel() {
         return useColumnLabel;
     }
@@ -811,6 +1106,28 @@ public class Configuration {
         incompleteStatements.add(incompleteStatement);
     }
 
+    /**
+     * Gets the number of statements that contained dynamic elements but were built as raw SQL sources because
+     * none of those elements had a branch.
+     *
+     * @return the number of folded statements
+     * @since 3.5.6
+     * @see #isFoldConstantSqlNodes()
+     */
+    public int getFoldedStatementCount() {
+        return foldedStatementCount.get();
+    }
+
+    /**
+     * Records that a statement was folded into a raw SQL source. Called by the script builder while statements are
+     * built.
+     *
+     * @since 3.5.6
+     */
+    public void addFoldedStatement() {
+        foldedStatementCount.incrementAndGet();
+    }
+
     public Collection<CacheRefResolver> getIncompleteCacheRefs() {
         return incompleteCacheRefs;
     }
@@ -17,6 +17,8 @@ package org.apache.ibatis.session;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.result.ColumnarResult;
+import org.apache.ibatis.executor.result.ColumnarResultHandler;
 
 import java.io.Closeable;
 import java.sql.Connection;
@@ -56,6 +58,52 @@ public interface SqlSession extends Closeable {
     <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
 
+    /**
+     * Retrieves the rows of a select without parameter into a column oriented table.
+     *
+     * @param statement Unique identifier matching the statement to use.
+     * @return the table, or {@code null} if the statement returned no result set
+     * @see #selectColumnar(String, Object, RowBounds)
+     * @since 3.5.6
+     */
+    default ColumnarResult selectColumnar(String statement) {
+        return selectColumnar(statement, null, RowBounds.DEFAULT);
+    }
+
+    /**
+     * Retrieves the rows of a select into a column oriented table.
+     *
+     * @param statement Unique identifier matching the statement to use.
+     * @param parameter A parameter object to pass to the statement.
+     * @return the table, or {@code null} if the statement returned no result set
+     * @see #selectColumnar(String, Object, RowBounds)
+     * @since 3.5.6
+     */
+    default ColumnarResult selectColumnar(String statement, Object parameter) {
+        return selectColumnar(statement, parameter, RowBounds.DEFAULT);
+    }
+
+    /**
+     * Retrieves the rows of a select into a column oriented table, without mapping row objects: the result maps of the
+     * statement are ignored and each column is read with the type handler resolved from its metadata. Every result set
+     * of the statement must have the same columns.
+     * <p>
+     * The select runs through {@link #select(String, Object, RowBounds, ResultHandler)} with a
+     * {@link ColumnarResultHandler}, so it is intercepted like any other select.
+     *
+     * @param statement Unique identifier matching the statement to use.
+     * @param parameter A parameter object to pass to the statement.
+     * @param rowBounds Bounds to limit object retrieval
+     * @return the table, or {@code null} if the statement returned no result set
+     * @since 3.5.6
+     */
+    default ColumnarResult selectColumnar(String statement, Object parameter, RowBounds rowBounds) {
+        ColumnarResultHandler resultHandler = new ColumnarResultHandler();
+        select(statement, parameter, rowBounds, resultHandler);
+        return resultHandler.getResult();
+    }
+
+
     void select(String statement, Object parameter, ResultHandler handler);
 
     void select(String statement, ResultHandler handler);
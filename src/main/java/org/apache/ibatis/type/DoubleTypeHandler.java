@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class DoubleTypeHandler extends BaseTypeHandler<Double> {
+public class DoubleTypeHandler extends BaseTypeHandler<Double> implements PrimitiveTypeHandler {
 
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i, Double parameter, JdbcType jdbcType)
@@ -52,4 +52,24 @@ public class DoubleTypeHandler extends BaseTypeHandler<Double> {
         return result == 0 && cs.wasNull() ? null : result;
     }
 
+
+    @Override
+    public Class<?> getPrimitiveType() {
+        return double.class;
+    }
+
+    @Override
+    public int getInt(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getInt(columnIndex);
+    }
+
+    @Override
+    public long getLong(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getLong(columnIndex);
+    }
+
+    @Override
+    public double getDouble(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getDouble(columnIndex);
+    }
 }
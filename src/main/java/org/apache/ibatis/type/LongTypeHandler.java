@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class LongTypeHandler extends BaseTypeHandler<Long> {
+public class LongTypeHandler extends BaseTypeHandler<Long> implements PrimitiveTypeHandler {
 
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i, Long parameter, JdbcType jdbcType)
@@ -51,4 +51,24 @@ public class LongTypeHandler extends BaseTypeHandler<Long> {
         long result = cs.getLong(columnIndex);
         return result == 0 && cs.wasNull() ? null : result;
     }
+
+    @Override
+    public Class<?> getPrimitiveType() {
+        return long.class;
+    }
+
+    @Override
+    public int getInt(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getInt(columnIndex);
+    }
+
+    @Override
+    public long getLong(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getLong(columnIndex);
+    }
+
+    @Override
+    public double getDouble(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getDouble(columnIndex);
+    }
 }
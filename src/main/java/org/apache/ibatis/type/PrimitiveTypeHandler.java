@@ -0,0 +1,70 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A type handler that can also read a column as a primitive value, without boxing it.
+ * <p>
+ * The primitive getters follow the JDBC conventions: SQL {@code NULL} is read as zero and must be told apart with
+ * {@link ResultSet#wasNull()}, and each getter converts the column as the {@link ResultSet} getter of the same type
+ * does. The getter matching {@link #getPrimitiveType()} must return the same value as
+ * {@link TypeHandler#getResult(ResultSet, int)}.
+ * <p>
+ * Result handling only reads primitives through the built-in handlers, see {@link #of(TypeHandler)}: a subclass may
+ * override how values are read, and is always read through {@link TypeHandler#getResult(ResultSet, int)}.
+ *
+ * @since 3.5.6
+ */
+public interface PrimitiveTypeHandler {
+
+    /**
+     * Returns the primitive type read by this handler.
+     *
+     * @return {@code int.class}, {@code long.class} or {@code double.class}
+     */
+    Class<?> getPrimitiveType();
+
+    int getInt(ResultSet rs, int columnIndex) throws SQLException;
+
+    long getLong(ResultSet rs, int columnIndex) throws SQLException;
+
+    double getDouble(ResultSet rs, int columnIndex) throws SQLException;
+
+    /**
+     * Returns the given handler if its primitive getters can be used in place of
+     * {@link TypeHandler#getResult(ResultSet, int)}, that is if it is exactly one of the built-in
+     * {@link IntegerTypeHandler}, {@link LongTypeHandler} or {@link DoubleTypeHandler}.
+     *
+     * @param typeHandler
+     *          the type handler, may be null
+     * @return the handler, or null if values must be read through {@code getResult}
+     */
+    static PrimitiveTypeHandler of(TypeHandler<?> typeHandler) {
+        // 子类可能覆盖了 getNullableResult, 只能按类型精确匹配
+        if (typeHandler == null) {
+            return null;
+        }
+        final Class<?> type = typeHandler.getClass();
+        if (type == IntegerTypeHandler.class || type == LongTypeHandler.class || type == DoubleTypeHandler.class) {
+            return (PrimitiveTypeHandler) typeHandler;
+        }
+        return null;
+    }
+
+}
@@ -16,12 +16,19 @@
 package org.apache.ibatis.builder;
 
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+
 public class SqlSourceBuilderTest {
 
     private static Configuration configuration;
@@ -53,4 +60,102 @@ public class SqlSourceBuilderTest {
         String shrankWhitespacesInSql = "SELECT * FROM user WHERE user_id = 1";
         Assertions.assertEquals(shrankWhitespacesInSql, actual);
     }
+
+    @Test
+    void shouldRemoveExtraWhitespacesLikeTokenizing() {
+        String[] sqls = {sqlFromXml, "", " ", "\t\r\n\f", "SELECT 1", " SELECT  1 ", "a\fb\u00A0c", "x =\t#{x}\r\n"};
+        for (String sql : sqls) {
+            Assertions.assertEquals(joinTokens(sql), SqlSourceBuilder.removeExtraWhitespaces(sql));
+        }
+    }
+
+    @Test
+    void shouldKeepResultWhenFragmentsAreCollapsedFirst() {
+        String[] fragments = {"\n  SELECT *", "\n", "FROM user\n\t", " WHERE", "user_id = 1 \n"};
+        StringBuilder original = new StringBuilder();
+        StringBuilder collapsed = new StringBuilder();
+        for (String fragment : fragments) {
+            original.append(fragment);
+            collapsed.append(SqlSourceBuilder.collapseWhitespaces(fragment));
+        }
+        Assertions.assertEquals(" SELECT *", SqlSourceBuilder.collapseWhitespaces(fragments[0]));
+        Assertions.assertEquals(SqlSourceBuilder.removeExtraWhitespaces(original.toString()), SqlSourceBuilder.removeExtraWhitespaces(collapsed.toString()));
+    }
+
+    @Test
+    void shouldReuseParameterMappingsOfSamePlaceholder() {
+        String sql = "SELECT * FROM user WHERE id = #{id,jdbcType=INTEGER} AND name = #{name}";
+        ParameterMapping first = parseFirstMapping(sql, Collections.emptyMap());
+        ParameterMapping second = parseFirstMapping(sql, Collections.emptyMap());
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("id", second.getProperty());
+
+        configuration.setParameterMappingCacheSize(0);
+        Assertions.assertNotSame(first, parseFirstMapping(sql, Collections.emptyMap()));
+    }
+
+    @Test
+    void shouldResolveAdditionalParametersByRuntimeType() {
+        String sql = "SELECT * FROM user WHERE id = #{item}";
+        Map<String, Object> additionalParameters = new HashMap<>();
+        additionalParameters.put("item", 1);
+        Assertions.assertEquals(Integer.class, parseFirstMapping(sql, additionalParameters).getJavaType());
+        additionalParameters.put("item", "a");
+        Assertions.assertEquals(String.class, parseFirstMapping(sql, additionalParameters).getJavaType());
+        Assertions.assertEquals(Object.class, parseFirstMapping(sql, Collections.emptyMap()).getJavaType());
+    }
+
+    @Test
+    void shouldShareOnePlaceholderAcrossForEachIterations() {
+        Map<String, Object> additionalParameters = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            additionalParameters.put("__frch_item_" + i, i);
+            ParameterMapping mapping = parseFirstMapping("SELECT #{__frch_item_" + i + ",jdbcType=INTEGER}", additionalParameters);
+            Assertions.assertEquals("__frch_item_" + i, mapping.getProperty());
+            Assertions.assertEquals(Integer.class, mapping.getJavaType());
+            Assertions.assertEquals(JdbcType.INTEGER, mapping.getJdbcType());
+            Assertions.assertNull(mapping.getPropertyPath());
+        }
+        Assertions.assertNotNull(configuration.getParameterPlaceholder("__frch_item_,jdbcType=INTEGER"));
+        Assertions.assertEquals("__frch_item_", configuration.getParameterPlaceholder("__frch_item_,jdbcType=INTEGER").getProperties().get("property"));
+        Assertions.assertNull(configuration.getParameterPlaceholder("__frch_item_7,jdbcType=INTEGER"));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedPlaceholdersWhenFull() {
+        configuration.setParameterMappingCacheSize(2);
+        parseFirstMapping("SELECT #{a}", Collections.emptyMap());
+        parseFirstMapping("SELECT #{b}", Collections.emptyMap());
+        parseFirstMapping("SELECT #{a}", Collections.emptyMap());
+        parseFirstMapping("SELECT #{c}", Collections.emptyMap());
+        Assertions.assertNotNull(configuration.getParameterPlaceholder("a"));
+        Assertions.assertNull(configuration.getParameterPlaceholder("b"));
+        Assertions.assertNotNull(configuration.getParameterPlaceholder("c"));
+        Assertions.assertEquals("b", parseFirstMapping("SELECT #{b}", Collections.emptyMap()).getProperty());
+        Assertions.assertNotNull(configuration.getParameterPlaceholder("b"));
+    }
+
+    @Test
+    void shouldNotCachePlaceholdersWhenDisabled() {
+        configuration.setParameterMappingCacheSize(0);
+        Assertions.assertEquals("a", parseFirstMapping("SELECT #{a}", Collections.emptyMap()).getProperty());
+        Assertions.assertNull(configuration.getParameterPlaceholder("a"));
+    }
+
+    private ParameterMapping parseFirstMapping(String sql, Map<String, Object> additionalParameters) {
+        BoundSql boundSql = sqlSourceBuilder.parse(sql, Map.class, additionalParameters).getBoundSql(null);
+        return boundSql.getParameterMappings().get(0);
+    }
+
+    private static String joinTokens(String sql) {
+        StringTokenizer tokenizer = new StringTokenizer(sql);
+        StringBuilder builder = new StringBuilder();
+        while (tokenizer.hasMoreTokens()) {
+            builder.append(tokenizer.nextToken());
+            if (tokenizer.hasMoreTokens()) {
+                builder.append(' ');
+            }
+        }
+        return builder.toString();
+    }
 }
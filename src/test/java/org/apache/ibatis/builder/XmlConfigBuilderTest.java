@@ -32,6 +32,8 @@ import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompiledExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -77,6 +79,16 @@ class XmlConfigBuilderTest {
             assertNull(config.getDefaultStatementTimeout());
             assertNull(config.getDefaultFetchSize());
             assertNull(config.getDefaultResultSetType());
+            assertNull(config.getCursorPrefetchSize());
+            assertNull(config.getParallelResultMappingChunkSize());
+            assertThat(config.isUseCompiledRowMappers()).isFalse();
+            assertThat(config.isCacheResultSetLayouts()).isTrue();
+            assertThat(config.isDetectResultOrdered()).isFalse();
+            assertThat(config.isUseCompiledDynamicSql()).isFalse();
+            assertThat(config.isUseDynamicSqlShapeCache()).isFalse();
+            assertThat(config.getExpressionEngine()).isInstanceOf(OgnlExpressionEngine.class);
+            assertThat(config.isFoldConstantSqlNodes()).isFalse();
+            assertThat(config.getParameterMappingCacheSize()).isEqualTo(1024);
             assertThat(config.isMapUnderscoreToCamelCase()).isFalse();
             assertThat(config.isSafeRowBoundsEnabled()).isFalse();
             assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.SESSION);
@@ -137,6 +149,16 @@ class XmlConfigBuilderTest {
             assertThat(config.getDefaultStatementTimeout()).isEqualTo(10);
             assertThat(config.getDefaultFetchSize()).isEqualTo(100);
             assertThat(config.getDefaultResultSetType()).isEqualTo(ResultSetType.SCROLL_INSENSITIVE);
+            assertThat(config.getCursorPrefetchSize()).isEqualTo(64);
+            assertThat(config.getParallelResultMappingChunkSize()).isEqualTo(1024);
+            assertThat(config.isUseCompiledRowMappers()).isTrue();
+            assertThat(config.isCacheResultSetLayouts()).isFalse();
+            assertThat(config.isDetectResultOrdered()).isTrue();
+            assertThat(config.isUseCompiledDynamicSql()).isTrue();
+            assertThat(config.isUseDynamicSqlShapeCache()).isTrue();
+            assertThat(config.getExpressionEngine()).isInstanceOf(CompiledExpressionEngine.class);
+            assertThat(config.isFoldConstantSqlNodes()).isTrue();
+            assertThat(config.getParameterMappingCacheSize()).isEqualTo(512);
             assertThat(config.isMapUnderscoreToCamelCase()).isTrue();
             assertThat(config.isSafeRowBoundsEnabled()).isTrue();
             assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.STATEMENT);
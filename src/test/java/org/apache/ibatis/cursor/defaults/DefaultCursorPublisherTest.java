@@ -0,0 +1,171 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.CursorSubscriber;
+import org.apache.ibatis.cursor.CursorSubscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultCursorPublisherTest {
+
+    @Test
+    void shouldEmitOnlyRequestedItems() {
+        ListCursor<String> cursor = new ListCursor<>(Arrays.asList("a", "b", "c"));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new DefaultCursorPublisher<>(cursor).subscribe(subscriber);
+
+        assertTrue(subscriber.items.isEmpty());
+        assertEquals(0, cursor.fetched);
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList("a", "b"), subscriber.items);
+        assertEquals(2, cursor.fetched);
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(5);
+        assertEquals(Arrays.asList("a", "b", "c"), subscriber.items);
+        assertTrue(subscriber.completed);
+        assertTrue(cursor.closed);
+    }
+
+    @Test
+    void shouldCloseCursorOnCancel() {
+        ListCursor<String> cursor = new ListCursor<>(Arrays.asList("a", "b", "c"));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new DefaultCursorPublisher<>(cursor).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertEquals(Arrays.asList("a"), subscriber.items);
+        assertTrue(cursor.closed);
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void shouldNotRecurseOnRequestFromOnNext() {
+        ListCursor<Integer> cursor = new ListCursor<>(Arrays.asList(1, 2, 3, 4));
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<Integer>() {
+            private int depth;
+
+            @Override
+            public void onNext(Integer item) {
+                assertEquals(0, depth);
+                depth++;
+                super.onNext(item);
+                subscription.request(1);
+                depth--;
+            }
+        };
+        new DefaultCursorPublisher<>(cursor).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void shouldSkipNullRows() {
+        ListCursor<String> cursor = new ListCursor<>(Arrays.asList(null, "a", null, "b"));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new DefaultCursorPublisher<>(cursor).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(Arrays.asList("a", "b"), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void shouldSignalErrorOnNonPositiveRequest() {
+        ListCursor<String> cursor = new ListCursor<>(Arrays.asList("a"));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new DefaultCursorPublisher<>(cursor).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(cursor.closed);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    void shouldRejectSecondSubscriber() {
+        DefaultCursorPublisher<String> publisher = new DefaultCursorPublisher<>(new ListCursor<>(Arrays.asList("a")));
+        publisher.subscribe(new RecordingSubscriber<>());
+        RecordingSubscriber<String> second = new RecordingSubscriber<>();
+        publisher.subscribe(second);
+
+        assertNotNull(second.subscription);
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    void shouldForwardFetchErrors() {
+        ListCursor<String> cursor = new ListCursor<String>(Arrays.asList("a", "b")) {
+            @Override
+            protected String fetch(String item) {
+                if ("b".equals(item)) {
+                    throw new IllegalStateException("boom");
+                }
+                return item;
+            }
+        };
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new DefaultCursorPublisher<>(cursor).subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+
+        assertEquals(Arrays.asList("a"), subscriber.items);
+        assertEquals("boom", subscriber.error.getMessage());
+        assertTrue(cursor.closed);
+    }
+
+    private static class RecordingSubscriber<T> implements CursorSubscriber<T> {
+        protected CursorSubscription subscription;
+        private final List<T> items = new ArrayList<>();
+        private boolean completed;
+        private Throwable error;
+
+        @Override
+        public void onSubscribe(CursorSubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
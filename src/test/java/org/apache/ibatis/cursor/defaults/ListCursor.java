@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cursor over an in-memory list that records how many rows were fetched and whether it was closed. Rows may be
+ * fetched on another thread than the one checking them.
+ */
+class ListCursor<T> implements Cursor<T> {
+    private final List<T> rows;
+    private final CountDownLatch fetchedRows;
+    volatile int fetched;
+    volatile boolean closed;
+
+    ListCursor(List<T> rows) {
+        this.rows = rows;
+        this.fetchedRows = new CountDownLatch(rows.size());
+    }
+
+    protected T fetch(T item) {
+        return item;
+    }
+
+    boolean awaitFetched(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fetched < count && System.nanoTime() < deadline) {
+            fetchedRows.await(10, TimeUnit.MILLISECONDS);
+        }
+        return fetched >= count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return fetched > 0 && !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return fetched == rows.size();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return fetched - 1;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !closed && fetched < rows.size();
+            }
+
+            @Override
+            public T next() {
+                T row = rows.get(fetched);
+                fetched++;
+                fetchedRows.countDown();
+                return fetch(row);
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchingCursorTest {
+
+    @Test
+    void shouldReturnRowsInOrder() {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(i);
+        }
+        ListCursor<Integer> delegate = new ListCursor<>(rows);
+        PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 8);
+
+        assertFalse(cursor.isOpen());
+        assertEquals(-1, cursor.getCurrentIndex());
+        List<Integer> read = new ArrayList<>();
+        for (Integer row : cursor) {
+            read.add(row);
+            assertEquals(read.size() - 1, cursor.getCurrentIndex());
+        }
+
+        assertEquals(rows, read);
+        assertTrue(cursor.isConsumed());
+        assertFalse(cursor.isOpen());
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    void shouldKeepNullRows() {
+        PrefetchingCursor<String> cursor = new PrefetchingCursor<>(new ListCursor<>(Arrays.asList("a", null, "b")), 2);
+
+        List<String> read = new ArrayList<>();
+        cursor.forEach(read::add);
+
+        assertEquals(Arrays.asList("a", null, "b"), read);
+    }
+
+    @Test
+    void shouldReturnRowsInChunks() {
+        PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(new ListCursor<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7)), 2);
+
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> previous = null;
+        for (List<Integer> chunk : cursor.chunks(3)) {
+            assertTrue(previous == null || previous == chunk);
+            chunks.add(new ArrayList<>(chunk));
+            previous = chunk;
+        }
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7)), chunks);
+        assertTrue(cursor.isConsumed());
+        assertThrows(IllegalArgumentException.class, () -> cursor.chunks(0));
+    }
+
+    @Test
+    void shouldNotReadMoreThanBufferSizeAhead() throws Exception {
+        AtomicInteger takes = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        ListCursor<Integer> delegate = new ListCursor<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)) {
+            @Override
+            protected Integer fetch(Integer item) {
+                // 每读取一行时记录领先于已开始的 next() 调用的行数
+                maxAhead.accumulateAndGet(fetched - takes.get(), Math::max);
+                return item;
+            }
+        };
+        PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 3);
+
+        Iterator<Integer> iterator = cursor.iterator();
+        takes.incrementAndGet();
+        assertEquals(Integer.valueOf(1), iterator.next());
+        // one row taken, three buffered and one waiting for a free slot
+        assertTrue(delegate.awaitFetched(5));
+        for (int i = 2; i <= 10; i++) {
+            takes.incrementAndGet();
+            assertEquals(Integer.valueOf(i), iterator.next());
+        }
+        assertEquals(4, maxAhead.get());
+
+        cursor.close();
+        assertTrue(delegate.closed);
+        assertFalse(cursor.isOpen());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void shouldStopReadingWhenClosedEarly() {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            rows.add(i);
+        }
+        ListCursor<Integer> delegate = new ListCursor<>(rows);
+        PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 16);
+
+        Iterator<Integer> iterator = cursor.iterator();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), iterator.next());
+        }
+        cursor.close();
+        int fetched = delegate.fetched;
+
+        assertTrue(delegate.closed);
+        assertTrue(fetched < rows.size());
+        assertFalse(cursor.isConsumed());
+        assertFalse(iterator.hasNext());
+        assertEquals(fetched, delegate.fetched);
+    }
+
+    @Test
+    void shouldRethrowFetchErrors() {
+        ListCursor<String> delegate = new ListCursor<String>(Arrays.asList("a", "b", "c")) {
+            @Override
+            protected String fetch(String item) {
+                if ("b".equals(item)) {
+                    throw new IllegalStateException("boom");
+                }
+                return item;
+            }
+        };
+        PrefetchingCursor<String> cursor = new PrefetchingCursor<>(delegate, 4);
+
+        Iterator<String> iterator = cursor.iterator();
+        assertEquals("a", iterator.next());
+        IllegalStateException e = assertThrows(IllegalStateException.class, iterator::hasNext);
+        assertEquals("boom", e.getMessage());
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    void shouldOpenOnlyOneIterator() {
+        PrefetchingCursor<String> cursor = new PrefetchingCursor<>(new ListCursor<>(Arrays.asList("a")), 1);
+        cursor.iterator();
+
+        assertThrows(IllegalStateException.class, cursor::iterator);
+        cursor.close();
+    }
+
+    @Test
+    void shouldRejectNonPositiveBufferSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchingCursor<>(new ListCursor<>(Arrays.asList("a")), 0));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarResultTest {
+
+    @Test
+    void shouldReadRowsAfterTrimmingToSize() throws SQLException {
+        ColumnarResult result = new ColumnarResult(Arrays.asList("id", "name"),
+                Arrays.asList(new IntegerTypeHandler(), new StringTypeHandler()));
+        result.readRow(row(1, "a"));
+        result.trimToSize();
+
+        result.readRow(row(2, "b"));
+        result.readRow(row(3, "c"));
+        result.trimToSize();
+        result.readRow(row(4, "d"));
+
+        assertEquals(4, result.getRowCount());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, result.getIntColumn(0));
+        assertEquals("d", result.getObject(3, 1));
+    }
+
+    @Test
+    void shouldReadRowsAfterTrimmingAnEmptyTable() throws SQLException {
+        ColumnarResult result = new ColumnarResult(Arrays.asList("id", "name"),
+                Arrays.asList(new IntegerTypeHandler(), new StringTypeHandler()));
+        result.trimToSize();
+        result.readRow(row(1, "a"));
+
+        assertEquals(1, result.getRowCount());
+        assertEquals(1, result.getInt(0, 0));
+    }
+
+    private ResultSet row(int id, String name) {
+        return (ResultSet) Proxy.newProxyInstance(ColumnarResultTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getInt":
+                            return id;
+                        case "getString":
+                            return name;
+                        case "wasNull":
+                            return false;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntListTest {
+
+    @Test
+    void shouldGrowAndKeepOrder() {
+        IntList list = new IntList();
+        for (int i = 0; i < 100; i++) {
+            list.addInt(i * 2);
+        }
+        assertEquals(100, list.size());
+        assertEquals(198, list.getInt(99));
+        assertEquals(Integer.valueOf(10), list.get(5));
+        assertEquals(100, list.toIntArray().length);
+    }
+
+    @Test
+    void shouldBehaveLikeList() {
+        IntList list = new IntList(2);
+        list.addAll(Arrays.asList(1, 2, 3));
+        assertEquals(Arrays.asList(1, 2, 3), list);
+        assertEquals(Integer.valueOf(2), list.set(1, 5));
+        assertArrayEquals(new int[]{1, 5, 3}, list.toIntArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(3));
+        assertThrows(NullPointerException.class, () -> list.add(null));
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void shouldCollectLongs() {
+        LongList list = new LongList();
+        PrimitiveListResultHandler handler = new PrimitiveListResultHandler(list);
+        assertEquals(long.class, handler.getPrimitiveType());
+        handler.addLong(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, list.getLong(0));
+        assertArrayEquals(new long[]{Long.MAX_VALUE}, list.toLongArray());
+    }
+
+    @Test
+    void shouldRejectValuesWhichDoNotFit() {
+        IntList list = new IntList();
+        PrimitiveListResultHandler handler = new PrimitiveListResultHandler(list);
+        handler.handleResult(result(3L));
+        handler.handleResult(result(new BigDecimal("4.0")));
+        assertArrayEquals(new int[]{3, 4}, list.toIntArray());
+        assertThrows(ExecutorException.class, () -> handler.handleResult(result(1L + Integer.MAX_VALUE)));
+        assertThrows(ExecutorException.class, () -> handler.handleResult(result(1.5d)));
+        assertThrows(ExecutorException.class, () -> handler.handleResult(result("5")));
+        assertEquals(2, list.size());
+    }
+
+    private static DefaultResultContext<Object> result(Object value) {
+        DefaultResultContext<Object> context = new DefaultResultContext<>();
+        context.nextResultObject(value);
+        return context;
+    }
+
+}
@@ -77,7 +77,7 @@ class DefaultResultSetHandlerTest {
         when(rs.getMetaData()).thenReturn(rsmd);
         when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
         when(rs.next()).thenReturn(true).thenReturn(false);
-        when(rs.getInt("CoLuMn1")).thenReturn(100);
+        when(rs.getInt(1)).thenReturn(100);
         when(rsmd.getColumnCount()).thenReturn(1);
         when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
         when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
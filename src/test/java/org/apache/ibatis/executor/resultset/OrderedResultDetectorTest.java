@@ -0,0 +1,102 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedResultDetectorTest {
+
+    private static final List<String> LABELS = Arrays.asList("ID", "NAME", "ROLE_ID", "ROLE_NAME");
+    private static final Set<String> ID = Collections.singleton("id");
+
+    @Test
+    void shouldDetectOrderByColumnLabel() {
+        assertTrue(isOrdered("select u.id, u.name, r.id as role_id, r.name as role_name from users u left join roles r on r.user_id = u.id order by id"));
+        assertTrue(isOrdered("SELECT id, name FROM users ORDER BY ID DESC, name"));
+        assertTrue(isOrdered("select id, name from users order by \"ID\" asc nulls last limit 10"));
+    }
+
+    @Test
+    void shouldDetectOrderBySelectedExpression() {
+        assertTrue(isOrdered("select u.id, u.name, r.id as role_id from users u join roles r on r.user_id = u.id order by u.id, r.id"));
+        assertTrue(isOrdered("select u.user_id id, u.name from users u order by u.user_id"));
+        assertTrue(isOrdered("select distinct u.id, u.name from users u order by u.id"));
+    }
+
+    @Test
+    void shouldDetectOrderByPosition() {
+        assertTrue(isOrdered("select id, name, role_id, role_name from users order by 1"));
+        assertFalse(isOrdered("select id, name, role_id, role_name from users order by 2"));
+    }
+
+    @Test
+    void shouldRequireAllIdColumnsFirst() {
+        Set<String> ids = new HashSet<>(Arrays.asList("id", "role_id"));
+        assertTrue(OrderedResultDetector.isOrderedBy("select * from users order by role_id, id, name", LABELS, ids));
+        assertFalse(OrderedResultDetector.isOrderedBy("select * from users order by id, name, role_id", LABELS, ids));
+        assertFalse(OrderedResultDetector.isOrderedBy("select * from users order by id", LABELS, ids));
+        assertFalse(isOrdered("select * from users order by name, id"));
+    }
+
+    @Test
+    void shouldNotDetectAmbiguousOrUnorderedQueries() {
+        assertFalse(isOrdered("select * from users"));
+        assertFalse(isOrdered("select u.id, r.id as role_id from users u join roles r on r.user_id = u.id order by r.id"));
+        assertFalse(isOrdered("select u.*, r.* from users u join roles r on r.user_id = u.id order by r.id"));
+        assertFalse(isOrdered("select * from users order by abs(id)"));
+        assertFalse(isOrdered("select * from users order by id + 1"));
+        assertFalse(isOrdered("select name as id, id as user_id from users order by user_id"));
+    }
+
+    @Test
+    void shouldOnlyConsiderTopLevelOrderBy() {
+        assertFalse(isOrdered("select * from (select * from users order by id) t"));
+        assertFalse(isOrdered("select id, row_number() over (order by id) as n from users"));
+        assertTrue(isOrdered("select * from (select * from users order by name) t order by id"));
+        assertFalse(isOrdered("select * from users where name = 'x order by id'"));
+    }
+
+    @Test
+    void shouldSkipComments() {
+        assertFalse(isOrdered("select b.id, p.id as post_id from blog b join post p on p.blog_id = b.id -- order by id"));
+        assertFalse(isOrdered("select b.id, p.id as post_id from blog b join post p on p.blog_id = b.id /* order by id */"));
+        assertFalse(isOrdered("select * from users order by name -- , id\n"));
+        assertFalse(isOrdered("select * from users order by /* id, */ name"));
+        assertTrue(isOrdered("select * from users -- sorted for grouping\norder by /* parent first */ id, name"));
+        assertTrue(isOrdered("select * from users order by id -- then the roles\n, role_id"));
+    }
+
+    @Test
+    void shouldNotDetectSortKeysWithUnknownPunctuation() {
+        assertFalse(isOrdered("select * from users order by id || name"));
+        assertFalse(isOrdered("select * from users order by id::text"));
+        assertFalse(isOrdered("select * from users order by ?"));
+        assertFalse(isOrdered("select * from users order by -id"));
+    }
+
+    private static boolean isOrdered(String sql) {
+        return OrderedResultDetector.isOrderedBy(sql, LABELS, ID);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultObjectConstructorTest {
+
+    @Test
+    void shouldCreateObjectsWithPrivateConstructor() {
+        List<Class<?>> argTypes = Arrays.asList(int.class, String.class);
+        ResultObjectConstructor constructor = ResultObjectConstructor.forArgTypes(Author.class, argTypes, new DefaultObjectFactory());
+        Author author = (Author) constructor.newInstance(new DefaultObjectFactory(), argTypes, Arrays.asList(1, "John"));
+        assertEquals(1, author.id);
+        assertEquals("John", author.name);
+    }
+
+    @Test
+    void shouldReturnNullWithoutMatchingConstructor() {
+        assertNull(ResultObjectConstructor.forArgTypes(Author.class, Arrays.asList(String.class, String.class), new DefaultObjectFactory()));
+    }
+
+    @Test
+    void shouldDelegateToCustomObjectFactory() {
+        List<Class<?>> created = new ArrayList<>();
+        ObjectFactory objectFactory = new DefaultObjectFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+                created.add(type);
+                return super.create(type, constructorArgTypes, constructorArgs);
+            }
+        };
+        List<Class<?>> argTypes = Arrays.asList(int.class, String.class);
+        ResultObjectConstructor constructor = ResultObjectConstructor.forArgTypes(Author.class, argTypes, objectFactory);
+        constructor.newInstance(objectFactory, argTypes, Arrays.asList(1, "John"));
+        assertEquals(Arrays.asList(Author.class), created);
+    }
+
+    @Test
+    void shouldReportInvalidValues() {
+        List<Class<?>> argTypes = Arrays.asList(int.class, String.class);
+        ResultObjectConstructor constructor = ResultObjectConstructor.forArgTypes(Author.class, argTypes, new DefaultObjectFactory());
+        ReflectionException e = assertThrows(ReflectionException.class,
+                () -> constructor.newInstance(new DefaultObjectFactory(), argTypes, Arrays.asList(null, "John")));
+        assertTrue(e.getMessage().contains("with invalid types (int,String) or values (null,John)"));
+    }
+
+    static class Author {
+        private final int id;
+        private final String name;
+
+        private Author(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
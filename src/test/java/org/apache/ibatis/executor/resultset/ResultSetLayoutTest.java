@@ -0,0 +1,118 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultSetLayoutTest {
+
+    @Test
+    void shouldFindColumnsIgnoringCase() {
+        ResultSetLayout layout = layout("ID", "NAME");
+        assertEquals(1, layout.getColumnIndex("id"));
+        assertEquals(2, layout.getColumnIndex("Name"));
+        assertEquals(0, layout.getColumnIndex("age"));
+        assertEquals(JdbcType.VARCHAR, layout.getJdbcType("name"));
+    }
+
+    @Test
+    void shouldMatchResultSetsWithSameColumns() throws SQLException {
+        ResultSetLayout layout = layout("ID", "NAME");
+        assertTrue(layout.matches(metaData("ID", "NAME"), true));
+        assertFalse(layout.matches(metaData("NAME", "ID"), true));
+        assertFalse(layout.matches(metaData("ID"), true));
+        assertFalse(layout.matches(metaData("ID", "NAME", "AGE"), true));
+    }
+
+    @Test
+    void shouldKeepLastLayoutOfEachResultSetOfStatement() {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = statement(configuration);
+        ResultSetLayout first = layout("A");
+        ResultSetLayout second = layout("B");
+        statement.setResultSetLayout(0, first);
+        statement.setResultSetLayout(1, second);
+        assertSame(first, statement.getResultSetLayout(0));
+        assertSame(second, statement.getResultSetLayout(1));
+        assertNull(statement.getResultSetLayout(2));
+
+        ResultSetLayout replaced = layout("C");
+        statement.setResultSetLayout(0, replaced);
+        assertSame(replaced, statement.getResultSetLayout(0));
+        assertSame(second, statement.getResultSetLayout(1));
+    }
+
+    @Test
+    void shouldNotKeepLayoutsWhenDisabled() {
+        Configuration configuration = new Configuration();
+        configuration.setCacheResultSetLayouts(false);
+        MappedStatement statement = statement(configuration);
+        statement.setResultSetLayout(0, layout("A"));
+        assertNull(statement.getResultSetLayout(0));
+    }
+
+    private static MappedStatement statement(Configuration configuration) {
+        return new MappedStatement.Builder(configuration, "select", new StaticSqlSource(configuration, "SELECT 1"), SqlCommandType.SELECT).build();
+    }
+
+    // 只实现布局比较用到的几个方法, 列类型与 layout(...) 一致
+    private static ResultSetMetaData metaData(String... columnNames) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetLayoutTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return columnNames.length;
+                        case "getColumnLabel":
+                        case "getColumnName":
+                            return columnNames[(Integer) args[0] - 1];
+                        case "getColumnType":
+                            return (Integer) args[0] == 1 ? Types.INTEGER : Types.VARCHAR;
+                        case "getColumnClassName":
+                            return (Integer) args[0] == 1 ? Integer.class.getName() : String.class.getName();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static ResultSetLayout layout(String... columnNames) {
+        JdbcType[] jdbcTypes = new JdbcType[columnNames.length];
+        String[] classNames = new String[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            jdbcTypes[i] = i == 0 ? JdbcType.INTEGER : JdbcType.VARCHAR;
+            classNames[i] = i == 0 ? Integer.class.getName() : String.class.getName();
+        }
+        return new ResultSetLayout(Arrays.asList(columnNames), Arrays.asList(classNames), Arrays.asList(jdbcTypes),
+                new Configuration().getTypeHandlerRegistry());
+    }
+}
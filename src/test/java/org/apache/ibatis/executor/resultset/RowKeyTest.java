@@ -0,0 +1,56 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RowKeyTest {
+
+    @Test
+    void shouldCompareValuesPositionally() {
+        assertEquals(new RowKey("map", null, new Object[]{1, null}), new RowKey("map", null, new Object[]{1, null}));
+        assertEquals(new RowKey("map", null, new Object[]{1, null}).hashCode(), new RowKey("map", null, new Object[]{1, null}).hashCode());
+        assertNotEquals(new RowKey("map", null, new Object[]{1, null}), new RowKey("map", null, new Object[]{null, 1}));
+        assertNotEquals(new RowKey("map", null, new Object[]{1}), new RowKey("other", null, new Object[]{1}));
+        assertNotEquals(new RowKey("map", null, new Object[]{1}), new RowKey("map", "P_", new Object[]{1}));
+    }
+
+    @Test
+    void shouldCompareArrayValuesByContent() {
+        assertEquals(new RowKey("map", null, new Object[]{new byte[]{1, 2}}), new RowKey("map", null, new Object[]{new byte[]{1, 2}}));
+    }
+
+    @Test
+    void shouldIncludeParentInCombinedKey() {
+        RowKey child = new RowKey("child", null, new Object[]{10});
+        RowKey parent1 = new RowKey("parent", null, new Object[]{1});
+        RowKey parent2 = new RowKey("parent", null, new Object[]{2});
+        assertEquals(RowKey.combine(child, parent1), RowKey.combine(new RowKey("child", null, new Object[]{10}), new RowKey("parent", null, new Object[]{1})));
+        assertNotEquals(RowKey.combine(child, parent1), RowKey.combine(child, parent2));
+        assertNotEquals(child, RowKey.combine(child, parent1));
+    }
+
+    @Test
+    void shouldNotCombineNullKeys() {
+        RowKey key = new RowKey("map", null, new Object[]{1});
+        assertSame(RowKey.NULL_ROW_KEY, RowKey.combine(key, RowKey.NULL_ROW_KEY));
+        assertSame(RowKey.NULL_ROW_KEY, RowKey.combine(RowKey.NULL_ROW_KEY, key));
+    }
+}
@@ -28,9 +28,13 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 class PooledDataSourceTest extends BaseDataTest {
@@ -76,6 +80,35 @@ class PooledDataSourceTest extends BaseDataTest {
         }
     }
 
+    @Test
+    void shouldHandOverConnectionsToWaitingThreads() throws Exception {
+        PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            ds.setPoolMaximumActiveConnections(2);
+            ds.setPoolMaximumIdleConnections(2);
+            ds.setPoolTimeToWait(10000);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futures.add(executorService.submit(() -> {
+                    try (Connection con = ds.getConnection()) {
+                        assertFalse(con.isClosed());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(40, ds.getPoolState().getRequestCount());
+            assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+            assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+        } finally {
+            executorService.shutdownNow();
+            ds.forceCloseAll();
+        }
+    }
+
     @Test
     void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
         PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LambdaReflectorFactoryTest {
+
+    @Test
+    void shouldUseLambdaInvokersForPublicBeans() {
+        Reflector reflector = new LambdaReflectorFactory().findForClass(Author.class);
+        assertTrue(reflector.getGetInvoker("id") instanceof LambdaMethodInvoker);
+        assertTrue(reflector.getSetInvoker("favouriteSection") instanceof LambdaMethodInvoker);
+    }
+
+    @Test
+    void shouldGetAndSetPropertiesThroughMetaObject() {
+        Configuration configuration = new Configuration();
+        configuration.setReflectorFactory(new LambdaReflectorFactory());
+        Author author = new Author();
+        MetaObject metaObject = configuration.newMetaObject(author);
+        metaObject.setValue("id", 100);
+        metaObject.setValue("username", "sally");
+        metaObject.setValue("favouriteSection", Section.NEWS);
+        metaObject.setValue("bio", null);
+        assertEquals(100, author.getId());
+        assertEquals(100, metaObject.getValue("id"));
+        assertEquals("sally", metaObject.getValue("username"));
+        assertEquals(Section.NEWS, metaObject.getValue("favouriteSection"));
+        assertNull(metaObject.getValue("bio"));
+    }
+
+    @Test
+    void shouldReportErrorsLikeReflection() {
+        Configuration configuration = new Configuration();
+        configuration.setReflectorFactory(new LambdaReflectorFactory());
+        MetaObject metaObject = configuration.newMetaObject(new Author());
+        assertThrows(ReflectionException.class, () -> metaObject.setValue("id", null));
+    }
+
+    @Test
+    void shouldKeepReflectiveInvokersForInaccessibleClasses() {
+        Reflector reflector = new LambdaReflectorFactory().findForClass(Bean.class);
+        assertFalse(reflector.getGetInvoker("name") instanceof LambdaMethodInvoker);
+        assertTrue(reflector.getGetInvoker("name") instanceof MethodInvoker);
+    }
+
+    @Test
+    void shouldDiscardCachedReflectorsWhenSwitched() {
+        DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+        assertFalse(reflectorFactory.findForClass(Author.class).getGetInvoker("id") instanceof LambdaMethodInvoker);
+        reflectorFactory.setLambdaInvokersEnabled(true);
+        assertTrue(reflectorFactory.findForClass(Author.class).getGetInvoker("id") instanceof LambdaMethodInvoker);
+    }
+
+    static class Bean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.property;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertyPathTest {
+
+    @Test
+    void shouldParsePathOnce() {
+        PropertyPath path = PropertyPath.compile("richType.richList[0]");
+        assertEquals("richType", path.getName());
+        assertNull(path.getIndex());
+        assertTrue(path.hasNext());
+        assertFalse(path.getSegment().hasNext());
+        PropertyPath children = path.getChildren();
+        assertEquals("richList", children.getName());
+        assertEquals("0", children.getIndex());
+        assertEquals("richList[0]", children.getIndexedName());
+        assertFalse(children.hasNext());
+    }
+
+    @Test
+    void shouldGetAndSetLikeStringPaths() {
+        MetaObject meta = SystemMetaObject.forObject(new RichType());
+        meta.setValue(PropertyPath.compile("richType.richProperty"), "foo");
+        meta.setValue(PropertyPath.compile("richType.richField"), "bar");
+        meta.setValue(PropertyPath.compile("richType.richMap[key]"), "baz");
+        meta.setValue(PropertyPath.compile("richList[0]"), "qux");
+        assertEquals("foo", meta.getValue("richType.richProperty"));
+        assertEquals("bar", meta.getValue(PropertyPath.compile("richType.richField")));
+        assertEquals("baz", meta.getValue(PropertyPath.compile("richType.richMap.key")));
+        assertEquals("qux", meta.getValue(PropertyPath.compile("richList[0]")));
+    }
+
+    @Test
+    void shouldNotInstantiateChildPathForNullValue() {
+        RichType rich = new RichType();
+        MetaObject meta = SystemMetaObject.forObject(rich);
+        meta.setValue(PropertyPath.compile("richType.richProperty"), null);
+        assertNull(rich.getRichType());
+        assertNull(meta.getValue(PropertyPath.compile("richType.richProperty")));
+    }
+
+    @Test
+    void shouldResolveInvokerPerType() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("richProperty", "fromMap");
+        RichType rich = new RichType();
+        rich.setRichProperty("fromBean");
+        PropertyPath path = PropertyPath.compile("richProperty");
+        assertEquals("fromBean", SystemMetaObject.forObject(rich).getValue(path));
+        assertEquals("fromMap", SystemMetaObject.forObject(map).getValue(path));
+        assertThrows(ReflectionException.class, () -> SystemMetaObject.forObject(new Object()).getValue(path));
+    }
+
+    @Test
+    void shouldKeepInvokersOfEachTypeWhenTypesAlternate() {
+        Author author = new Author(1);
+        Blog blog = new Blog(2, "title", null, null);
+        PropertyPath path = PropertyPath.compile("id");
+        ReflectorFactory reflectorFactory = SystemMetaObject.forObject(author).getReflectorFactory();
+        Invoker authorGetter = path.getGetInvoker(Author.class, reflectorFactory);
+        Invoker blogGetter = path.getGetInvoker(Blog.class, reflectorFactory);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, SystemMetaObject.forObject(author).getValue(path));
+            assertEquals(2, SystemMetaObject.forObject(blog).getValue(path));
+            assertSame(authorGetter, path.getGetInvoker(Author.class, reflectorFactory));
+            assertSame(blogGetter, path.getGetInvoker(Blog.class, reflectorFactory));
+        }
+    }
+
+    @Test
+    void shouldNotCompileForEachItemNames() {
+        Configuration configuration = new Configuration();
+        for (int i = 0; i < 10000; i++) {
+            ParameterMapping mapping = new ParameterMapping.Builder(configuration, "__frch_item_" + i, Object.class)
+                .compilePropertyPath(false).build();
+            assertNull(mapping.getPropertyPath());
+        }
+        ParameterMapping mapping = new ParameterMapping.Builder(configuration, "richType.richProperty", Object.class).build();
+        assertEquals("richType.richProperty", mapping.getPropertyPath().getFullName());
+        assertSame(mapping.getPropertyPath(), mapping.getPropertyPath());
+        assertNotSame(mapping.getPropertyPath(), PropertyPath.compile("richType.richProperty"));
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ShapeCacheTest {
+
+    @Test
+    void shouldEvictLeastRecentlyUsedShapeWhenFull() {
+        ShapeCache<String> cache = new ShapeCache<>(2);
+        cache.put(Integer.class, "a", "A");
+        cache.put(Integer.class, "b", "B");
+        assertEquals("A", cache.get(Integer.class, "a"));
+
+        cache.put(Integer.class, "c", "C");
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.get(Integer.class, "a"));
+        assertNull(cache.get(Integer.class, "b"));
+        assertEquals("C", cache.get(Integer.class, "c"));
+    }
+
+    @Test
+    void shouldDistinguishParameterTypes() {
+        ShapeCache<String> cache = new ShapeCache<>();
+        cache.put(Integer.class, "a", "A");
+        assertNull(cache.get(Long.class, "a"));
+        cache.put(Integer.class, "a", "A2");
+        assertEquals("A2", cache.get(Integer.class, "a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        ShapeCache<String> cache = new ShapeCache<>(0);
+        cache.put(Integer.class, "a", "A");
+        assertNull(cache.get(Integer.class, "a"));
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateLanguageDriverTest {
+
+    private final Configuration configuration = new Configuration();
+
+    @Test
+    void shouldShareCompiledTemplatesAndBuildRawSqlSourceForStaticTemplates() {
+        SectionLanguageDriver driver = new SectionLanguageDriver();
+        SqlSource first = driver.createSqlSource(configuration, "select * from t where id = #{id}", Map.class);
+        SqlSource second = driver.createSqlSource(configuration, "select * from t where id = #{id}", Map.class);
+
+        assertTrue(first instanceof RawSqlSource);
+        assertTrue(second instanceof RawSqlSource);
+        assertEquals(1, driver.getCompilationCount());
+        assertEquals(1, driver.getTemplateCacheHitCount());
+        assertEquals("select * from t where id = ?", first.getBoundSql(param(1, null)).getSql());
+    }
+
+    @Test
+    void shouldReuseSqlRenderedForSameShape() {
+        SectionLanguageDriver driver = new SectionLanguageDriver();
+        SqlSource sqlSource = driver.createSqlSource(configuration, "select * from t where id = #{id}[name: and name = #{name}]", Map.class);
+
+        BoundSql withName = sqlSource.getBoundSql(param(1, "a"));
+        BoundSql withOtherName = sqlSource.getBoundSql(param(2, "b"));
+        BoundSql withoutName = sqlSource.getBoundSql(param(3, null));
+
+        assertEquals("select * from t where id = ? and name = ?", withName.getSql());
+        assertEquals(withName.getSql(), withOtherName.getSql());
+        assertEquals(2, withOtherName.getParameterMappings().size());
+        assertEquals("name", withOtherName.getParameterMappings().get(1).getProperty());
+        assertEquals("select * from t where id = ?", withoutName.getSql());
+        assertEquals(2, driver.getRenderCount());
+        assertEquals(1, driver.getShapeCacheHitCount());
+    }
+
+    @Test
+    void shouldNotReuseSqlThatBindsValues() {
+        SectionLanguageDriver driver = new SectionLanguageDriver();
+        SqlSource sqlSource = driver.createSqlSource(configuration, "select * from t where id in (@ids)", Map.class);
+        Map<String, Object> param = new HashMap<>();
+        param.put("ids", new ArrayList<>(Arrays.asList(1, 2)));
+
+        sqlSource.getBoundSql(param);
+        BoundSql boundSql = sqlSource.getBoundSql(param);
+
+        assertEquals("select * from t where id in (?, ?)", boundSql.getSql());
+        assertEquals(2, boundSql.getAdditionalParameter("__ids_1"));
+        assertEquals(2, driver.getRenderCount());
+        assertEquals(0, driver.getShapeCacheHitCount());
+    }
+
+    @Test
+    void shouldNotReuseSqlThatOverwritesBindings() {
+        SectionLanguageDriver driver = new SectionLanguageDriver() {
+            @Override
+            protected String render(List<String> template, Map<String, Object> bindings) {
+                bindings.put(DynamicContext.DATABASE_ID_KEY, "other");
+                return super.render(template, bindings);
+            }
+        };
+        SqlSource sqlSource = driver.createSqlSource(configuration, "select * from t where id = #{id}[name: and name = #{name}]", Map.class);
+
+        sqlSource.getBoundSql(param(1, "a"));
+        sqlSource.getBoundSql(param(2, "b"));
+
+        assertEquals(2, driver.getRenderCount());
+        assertEquals(0, driver.getShapeCacheHitCount());
+    }
+
+    @Test
+    void shouldKeepCachingShapesOnceFull() {
+        SectionLanguageDriver driver = new SectionLanguageDriver() {
+            @Override
+            protected Object getShape(List<String> template, Object parameterObject) {
+                return ((Map<?, ?>) parameterObject).get("id");
+            }
+        };
+        SqlSource sqlSource = driver.createSqlSource(configuration, "select * from t where id = #{id}[name: and name = #{name}]", Map.class);
+        int shapes = ShapeCache.DEFAULT_MAX_SIZE + 10;
+        for (int i = 0; i < shapes; i++) {
+            sqlSource.getBoundSql(param(i, null));
+        }
+
+        sqlSource.getBoundSql(param(shapes - 1, null));
+        assertEquals(1, driver.getShapeCacheHitCount());
+        // 最早的形态已被淘汰, 重新渲染后又能命中
+        sqlSource.getBoundSql(param(0, null));
+        sqlSource.getBoundSql(param(0, null));
+        assertEquals(shapes + 1, driver.getRenderCount());
+        assertEquals(2, driver.getShapeCacheHitCount());
+    }
+
+    private Map<String, Object> param(Object id, Object name) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("id", id);
+        param.put("name", name);
+        return param;
+    }
+
+    /**
+     * A template language where {@code [name: sql]} is rendered only when the parameter has a non null {@code name},
+     * and {@code @name} expands the elements of the collection {@code name} into bound placeholders.
+     */
+    private static class SectionLanguageDriver extends TemplateLanguageDriver<List<String>> {
+
+        @Override
+        protected List<String> compile(Configuration configuration, String script) {
+            List<String> parts = new ArrayList<>();
+            int start = 0;
+            int open;
+            while ((open = script.indexOf('[', start)) >= 0) {
+                int close = script.indexOf(']', open);
+                parts.add(script.substring(start, open));
+                parts.add(script.substring(open, close + 1));
+                start = close + 1;
+            }
+            parts.add(script.substring(start));
+            return parts;
+        }
+
+        @Override
+        protected String render(List<String> template, Map<String, Object> bindings) {
+            Map<?, ?> parameter = (Map<?, ?>) bindings.get(DynamicContext.PARAMETER_OBJECT_KEY);
+            StringBuilder sql = new StringBuilder();
+            for (String part : template) {
+                if (part.startsWith("[")) {
+                    int colon = part.indexOf(':');
+                    if (parameter.get(part.substring(1, colon)) != null) {
+                        sql.append(part, colon + 1, part.length() - 1);
+                    }
+                } else if (part.contains("@")) {
+                    int at = part.indexOf('@');
+                    int end = part.indexOf(')', at);
+                    String name = part.substring(at + 1, end);
+                    List<?> values = (List<?>) parameter.get(name);
+                    sql.append(part, 0, at);
+                    for (int i = 0; i < values.size(); i++) {
+                        bindings.put("__" + name + "_" + i, values.get(i));
+                        sql.append(i == 0 ? "" : ", ").append("#{__").append(name).append('_').append(i).append('}');
+                    }
+                    sql.append(part.substring(end));
+                } else {
+                    sql.append(part);
+                }
+            }
+            return sql.toString();
+        }
+
+        @Override
+        protected boolean isStatic(List<String> template) {
+            return template.size() == 1 && !template.get(0).contains("@");
+        }
+
+        @Override
+        protected Object getShape(List<String> template, Object parameterObject) {
+            Map<?, ?> parameter = (Map<?, ?>) parameterObject;
+            StringBuilder shape = new StringBuilder();
+            for (String part : template) {
+                if (part.startsWith("[")) {
+                    shape.append(parameter.get(part.substring(1, part.indexOf(':'))) != null ? '1' : '0');
+                }
+            }
+            return shape.toString();
+        }
+    }
+}
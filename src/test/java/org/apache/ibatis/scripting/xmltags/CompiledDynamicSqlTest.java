@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompiledDynamicSqlTest {
+
+    private static final String[] SCRIPTS = {
+        "<script>select * from t <where><if test='id != null'>and id = #{id}</if><if test='name != null'> and name = #{name,jdbcType=VARCHAR}</if></where></script>",
+        "<script>select * from t where id in <foreach collection='ids' item='x' index='i' open='(' separator=',' close=')'>#{x}</foreach> and k = #{k}</script>",
+        "<script>select * from t where <foreach collection='m' item='v' index='k' separator=' or '>(${k} = #{v} and #{k} is not null)</foreach></script>",
+        "<script>update t <set><if test='name != null'>name = #{name},</if><if test='id != null'>id = #{id},</if></set> where id = #{id}</script>",
+        "<script><bind name='pattern' value=\"'%' + name + '%'\"/>select * from t where name like #{pattern} and x = '\\#{literal}'</script>",
+        "<script>select ${col} from t <trim prefix='WHERE' prefixOverrides='AND |OR '><if test='id != null'>AND id = #{id}</if> <choose><when test='name == null'>OR a = #{k}</when><otherwise>OR b = #{name}</otherwise></choose></trim></script>",
+        "<script>select * from t where a in <foreach collection='nested' item='row' separator=' union '><foreach collection='row' item='c' open='(' close=')' separator=','>#{c}</foreach></foreach></script>"
+    };
+
+    @Test
+    void shouldProduceSameBoundSqlAsInterpretedMode() {
+        for (String script : SCRIPTS) {
+            assertSameBoundSql(script);
+        }
+    }
+
+    private void assertSameBoundSql(String script) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("id", 5);
+        param.put("name", "bob");
+        param.put("k", "kk");
+        param.put("col", "c1");
+        param.put("ids", Arrays.asList(1, 2, 3));
+        param.put("nested", Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3)));
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("c1", 1);
+        columns.put("c2", "two");
+        param.put("m", columns);
+
+        BoundSql expected = createSqlSource(script, false).getBoundSql(param);
+        BoundSql actual = createSqlSource(script, true).getBoundSql(param);
+
+        assertEquals(expected.getSql(), actual.getSql());
+        assertEquals(expected.getParameterMappings().size(), actual.getParameterMappings().size());
+        for (int i = 0; i < expected.getParameterMappings().size(); i++) {
+            ParameterMapping expectedMapping = expected.getParameterMappings().get(i);
+            ParameterMapping actualMapping = actual.getParameterMappings().get(i);
+            assertEquals(expectedMapping.getProperty(), actualMapping.getProperty());
+            assertEquals(expectedMapping.getJavaType(), actualMapping.getJavaType());
+            assertEquals(expectedMapping.getJdbcType(), actualMapping.getJdbcType());
+            assertEquals(expectedMapping.getTypeHandler().getClass(), actualMapping.getTypeHandler().getClass());
+            String property = expectedMapping.getProperty();
+            assertEquals(expected.hasAdditionalParameter(property), actual.hasAdditionalParameter(property));
+            if (expected.hasAdditionalParameter(property)) {
+                assertEquals(expected.getAdditionalParameter(property), actual.getAdditionalParameter(property));
+            }
+        }
+    }
+
+    private SqlSource createSqlSource(String script, boolean compiled) {
+        Configuration configuration = new Configuration();
+        configuration.setUseCompiledDynamicSql(compiled);
+        return new XMLLanguageDriver().createSqlSource(configuration, script, Map.class);
+    }
+}
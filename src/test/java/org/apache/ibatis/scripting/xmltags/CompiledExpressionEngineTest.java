@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledExpressionEngineTest {
+
+    private static final String[] EXPRESSIONS = {
+        "id", "name", "missing", "name != null", "name == null", "null == name", "id > 0", "id >= 1", "id lt 2",
+        "id lte 0", "id gt 1 or name neq 'x'", "id == 1", "id eq 1.0", "id != 1", "name == 'bob'", "name == \"bob\"",
+        "name == 'b'", "flag", "!flag", "not flag", "flag and id > 0", "flag && name != null", "empty or id",
+        "ids != null and ids.size() > 0", "ids.isEmpty()", "!ids.isEmpty()", "map.size() == 2", "map.k1 == 'v1'",
+        "map.k2 != null", "name.length() > 2", "name.equals('bob')", "name.toString() == 'bob'", "(id > 0 or flag) and name != null",
+        "author.username == 'cbegin'", "author.password", "author.id > 0 and author.favouriteSection != null",
+        "nested.map.k1", "ch == 'c'", "big > 100", "_parameter != null", "_databaseId == null"
+    };
+
+    private final CompiledExpressionEngine engine = new CompiledExpressionEngine();
+    private final OgnlExpressionEngine ognl = new OgnlExpressionEngine();
+
+    @Test
+    void shouldEvaluateLikeOgnlWithMapParameter() {
+        Map<String, Object> bindings = new DynamicContext(new Configuration(), parameter()).getBindings();
+        for (String expression : EXPRESSIONS) {
+            assertSameResult(expression, bindings);
+        }
+    }
+
+    @Test
+    void shouldEvaluateLikeOgnlWithBeanParameter() {
+        Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+        Map<String, Object> bindings = new DynamicContext(new Configuration(), author).getBindings();
+        String[] expressions = {"username == 'cbegin'", "password == null", "id > 0 and favouriteSection != null",
+            "username.length() == 6", "email != null and bio == 'N/A'"};
+        for (String expression : expressions) {
+            assertSameResult(expression, bindings);
+            assertSameResult(expression, author);
+        }
+    }
+
+    @Test
+    void shouldFallBackToOgnlOutsideOfTheSubset() {
+        Map<String, Object> bindings = new DynamicContext(new Configuration(), parameter()).getBindings();
+        String[] expressions = {"id + 1", "ids[0]", "ids.size", "name.substring(1)", "@java.lang.Math@abs(-1)",
+            "id == 1 ? 'a' : 'b'", "'%' + name + '%'", "map['k1']", "1L == id"};
+        for (String expression : expressions) {
+            assertFalse(engine.isCompiled(expression), expression);
+            assertSameResult(expression, bindings);
+        }
+        assertTrue(engine.isCompiled("name != null and ids.size() > 0"));
+    }
+
+    @Test
+    void shouldFallBackToOgnlWhenAPathMeetsNull() {
+        Map<String, Object> param = parameter();
+        param.put("author", null);
+        Map<String, Object> bindings = new DynamicContext(new Configuration(), param).getBindings();
+        assertSameResult("author.username", bindings);
+    }
+
+    @Test
+    void shouldReadPropertiesThroughGivenReflectorFactory() {
+        List<Class<?>> reflectedTypes = new ArrayList<>();
+        ReflectorFactory reflectorFactory = new DefaultReflectorFactory() {
+            @Override
+            public Reflector findForClass(Class<?> type) {
+                reflectedTypes.add(type);
+                return super.findForClass(type);
+            }
+        };
+        Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+        assertEquals(true, new CompiledExpressionEngine(reflectorFactory).getValue("username == 'cbegin'", author));
+        assertEquals(Collections.singletonList(Author.class), reflectedTypes);
+    }
+
+    private void assertSameResult(String expression, Object root) {
+        Object expected;
+        try {
+            expected = ognl.getValue(expression, root);
+        } catch (RuntimeException e) {
+            expected = e.getClass().getName() + ": " + e.getMessage();
+        }
+        Object actual;
+        try {
+            actual = engine.getValue(expression, root);
+        } catch (RuntimeException e) {
+            actual = e.getClass().getName() + ": " + e.getMessage();
+        }
+        assertEquals(expected, actual, expression);
+    }
+
+    private Map<String, Object> parameter() {
+        Map<String, Object> param = new HashMap<>();
+        param.put("id", 1);
+        param.put("name", "bob");
+        param.put("flag", true);
+        param.put("empty", "");
+        param.put("ch", 'c');
+        param.put("big", new java.math.BigDecimal("123.45"));
+        param.put("ids", new ArrayList<>(Arrays.asList(1, 2)));
+        Map<String, Object> map = new HashMap<>();
+        map.put("k1", "v1");
+        map.put("k2", 2);
+        param.put("map", map);
+        param.put("nested", new HashMap<>(Collections.singletonMap("map", map)));
+        param.put("author", new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS));
+        return param;
+    }
+}
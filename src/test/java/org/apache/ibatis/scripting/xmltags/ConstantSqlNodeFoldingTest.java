@@ -0,0 +1,100 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConstantSqlNodeFoldingTest {
+
+    private static final String[] FOLDABLE_SCRIPTS = {
+        "<script>select * from t <where> and id = #{id} </where></script>",
+        "<script>update t <set>name = #{name}, id = #{id},</set> where id = #{id}</script>",
+        "<script>select * from t <trim prefix=' WHERE (' suffix=') ' prefixOverrides='OR '>OR a = #{id} <where>and b = 1</where></trim> order by id</script>",
+        "<script>select * from t <where></where></script>",
+        "<script>select * from t <where>and a = #{_parameterId} and b = #{item._parameter}</where></script>",
+        "<script>select * from t <where><trim prefix='and'>id = #{id}</trim> and name = #{name}</where> <set></set></script>"
+    };
+
+    private static final String[] DYNAMIC_SCRIPTS = {
+        "<script>select * from t <where><if test='id != null'>and id = #{id}</if></where></script>",
+        "<script>select ${col} from t <where>and id = #{id}</where></script>",
+        "<script>select * from t <where>and id = #{_parameter.id}</where></script>",
+        "<script>select * from t <where>and id = #{ _parameter[id], jdbcType=INTEGER}</where></script>",
+        "<script>select * from t <where>and db = #{_databaseId}</where></script>",
+        "<script>select * from t <where>and id = #{id}</where> <bind name='n' value='name'/> and name = #{n}</script>",
+        "<script>select * from t where a in <foreach collection='ids' item='x' open='(' separator=',' close=')'><trim prefixOverrides=','>, #{x}</trim></foreach></script>"
+    };
+
+    @Test
+    void shouldFoldStatementsWithoutBranches() {
+        Configuration configuration = newConfiguration(true);
+        for (String script : FOLDABLE_SCRIPTS) {
+            SqlSource folded = createSqlSource(configuration, script);
+            assertTrue(folded instanceof RawSqlSource, script);
+            assertEquals(createSqlSource(newConfiguration(false), script).getBoundSql(param()).getSql(), folded.getBoundSql(param()).getSql());
+        }
+        assertEquals(FOLDABLE_SCRIPTS.length, configuration.getFoldedStatementCount());
+    }
+
+    @Test
+    void shouldKeepStatementsWithBranchesDynamic() {
+        Configuration configuration = newConfiguration(true);
+        for (String script : DYNAMIC_SCRIPTS) {
+            SqlSource sqlSource = createSqlSource(configuration, script);
+            assertTrue(sqlSource instanceof DynamicSqlSource, script);
+            assertEquals(createSqlSource(newConfiguration(false), script).getBoundSql(param()).getSql(), sqlSource.getBoundSql(param()).getSql());
+        }
+        assertEquals(0, configuration.getFoldedStatementCount());
+    }
+
+    @Test
+    void shouldNotFoldWhenDisabled() {
+        Configuration configuration = newConfiguration(false);
+        SqlSource sqlSource = createSqlSource(configuration, FOLDABLE_SCRIPTS[0]);
+        assertTrue(sqlSource instanceof DynamicSqlSource);
+        assertEquals(0, configuration.getFoldedStatementCount());
+    }
+
+    private Map<String, Object> param() {
+        Map<String, Object> param = new HashMap<>();
+        param.put("id", 5);
+        param.put("name", "bob");
+        param.put("col", "c1");
+        param.put("ids", new ArrayList<>(Arrays.asList(1, 2)));
+        return param;
+    }
+
+    private Configuration newConfiguration(boolean fold) {
+        Configuration configuration = new Configuration();
+        configuration.setFoldConstantSqlNodes(fold);
+        return configuration;
+    }
+
+    private SqlSource createSqlSource(Configuration configuration, String script) {
+        return new XMLLanguageDriver().createSqlSource(configuration, script, Map.class);
+    }
+}
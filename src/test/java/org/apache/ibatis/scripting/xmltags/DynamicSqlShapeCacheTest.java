@@ -0,0 +1,100 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.ShapeCache;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DynamicSqlShapeCacheTest {
+
+    private static final String SCRIPT = "<script>select * from t <where>"
+        + "<if test='name != null'>name = #{name}</if>"
+        + "<if test='ids != null'>and id in <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></if>"
+        + "</where> order by ${order}</script>";
+
+    @Test
+    void shouldRebindValuesOfTheSameShape() {
+        SqlSource sqlSource = createSqlSource();
+        BoundSql first = sqlSource.getBoundSql(param("a", "id", 1, 2));
+        BoundSql second = sqlSource.getBoundSql(param("b", "id", 3, 4));
+        assertEquals("select * from t  WHERE name = ?and id in (?,?)  order by id", second.getSql());
+        assertEquals(first.getSql(), second.getSql());
+        assertEquals(3, second.getParameterMappings().size());
+        assertEquals(3, second.getAdditionalParameter("__frch_id_0"));
+        assertEquals(4, second.getAdditionalParameter("__frch_id_1"));
+    }
+
+    @Test
+    void shouldDistinguishBranchesIterationsAndTextSubstitutions() {
+        SqlSource sqlSource = createSqlSource();
+        sqlSource.getBoundSql(param("a", "id", 1, 2));
+        assertEquals("select * from t  WHERE  id in (?,?,?)  order by id",
+            sqlSource.getBoundSql(param(null, "id", 1, 2, 3)).getSql());
+        assertEquals("select * from t  WHERE name = ?  order by id",
+            sqlSource.getBoundSql(param("a", "id")).getSql());
+        assertEquals("select * from t  WHERE name = ?and id in (?,?)  order by name",
+            sqlSource.getBoundSql(param("a", "name", 1, 2)).getSql());
+    }
+
+    @Test
+    void shouldResolveTypeHandlersAgainWhenItemTypesChange() {
+        SqlSource sqlSource = createSqlSource();
+        BoundSql integers = sqlSource.getBoundSql(param(null, "id", 1));
+        BoundSql strings = sqlSource.getBoundSql(param(null, "id", "1"));
+        assertEquals(integers.getSql(), strings.getSql());
+        assertEquals(IntegerTypeHandler.class, integers.getParameterMappings().get(0).getTypeHandler().getClass());
+        assertEquals(StringTypeHandler.class, strings.getParameterMappings().get(0).getTypeHandler().getClass());
+    }
+
+    @Test
+    void shouldKeepRenderingCorrectSqlOnceShapesOutnumberTheCache() {
+        SqlSource sqlSource = createSqlSource();
+        for (int i = 0; i < ShapeCache.DEFAULT_MAX_SIZE + 10; i++) {
+            assertEquals("select * from t  WHERE name = ?  order by c" + i, sqlSource.getBoundSql(param("a", "c" + i)).getSql());
+        }
+        for (int i = 0; i < 2; i++) {
+            BoundSql boundSql = sqlSource.getBoundSql(param(null, "c0", 1, 2));
+            assertEquals("select * from t  WHERE  id in (?,?)  order by c0", boundSql.getSql());
+            assertEquals(2, boundSql.getAdditionalParameter("__frch_id_1"));
+        }
+    }
+
+    private SqlSource createSqlSource() {
+        Configuration configuration = new Configuration();
+        configuration.setUseDynamicSqlShapeCache(true);
+        return new XMLLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+    }
+
+    private Map<String, Object> param(String name, String order, Object... ids) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("name", name);
+        param.put("order", order);
+        param.put("ids", ids.length == 0 ? null : Arrays.asList(ids));
+        return param;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.ArrayTypeHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ForEachSqlNodeTest {
+
+    private static final String ARRAY_SCRIPT = "<script>select * from t where id = ANY(<foreach collection='ids' item='id' mode='array'/>)</script>";
+
+    @Test
+    void shouldBindCollectionAsSingleArrayParameter() {
+        BoundSql boundSql = getBoundSql(ARRAY_SCRIPT, Arrays.asList(1, 2, 3));
+        assertEquals("select * from t where id = ANY( ? )", boundSql.getSql());
+        assertEquals(1, boundSql.getParameterMappings().size());
+        ParameterMapping mapping = boundSql.getParameterMappings().get(0);
+        assertEquals(ArrayTypeHandler.class, mapping.getTypeHandler().getClass());
+        assertEquals(Integer[].class, mapping.getJavaType());
+        assertArrayEquals(new Integer[]{1, 2, 3}, (Object[]) boundSql.getAdditionalParameter(mapping.getProperty()));
+    }
+
+    @Test
+    void shouldGenerateTheSameSqlWhateverTheSize() {
+        assertEquals(getBoundSql(ARRAY_SCRIPT, Arrays.asList(1, 2, 3)).getSql(),
+            getBoundSql(ARRAY_SCRIPT, Collections.singletonList(1)).getSql());
+        BoundSql empty = getBoundSql(ARRAY_SCRIPT, Collections.emptyList());
+        assertEquals(0, ((Object[]) empty.getAdditionalParameter(empty.getParameterMappings().get(0).getProperty())).length);
+    }
+
+    @Test
+    void shouldUseObjectArrayForMixedElementTypes() {
+        BoundSql boundSql = getBoundSql(ARRAY_SCRIPT, Arrays.asList(1, "2", null));
+        ParameterMapping mapping = boundSql.getParameterMappings().get(0);
+        assertEquals(Object[].class, boundSql.getAdditionalParameter(mapping.getProperty()).getClass());
+    }
+
+    @Test
+    void shouldPadElementsToNextPowerOfTwo() {
+        String script = "<script>select * from t where id in <foreach collection='ids' item='id' open='(' separator=',' close=')' padding='true'>#{id}</foreach></script>";
+        BoundSql three = getBoundSql(script, Arrays.asList(1, 2, 3));
+        assertEquals("select * from t where id in  (  ? , ? , ? , ? )", three.getSql());
+        assertEquals(3, three.getAdditionalParameter(three.getParameterMappings().get(3).getProperty()));
+        assertEquals(three.getSql(), getBoundSql(script, Arrays.asList(4, 5, 6, 7)).getSql());
+        assertEquals(1, getBoundSql(script, Collections.singletonList(1)).getParameterMappings().size());
+        assertEquals(8, getBoundSql(script, Arrays.asList(1, 2, 3, 4, 5)).getParameterMappings().size());
+    }
+
+    @Test
+    void shouldRepeatLastIndexWhenPadding() {
+        String script = "<script><foreach collection='ids' item='id' index='i' separator=',' padding='true'>#{i}</foreach></script>";
+        BoundSql boundSql = getBoundSql(script, Arrays.asList("a", "b", "c"));
+        assertEquals(4, boundSql.getParameterMappings().size());
+        assertEquals(2, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(2).getProperty()));
+        assertEquals(2, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(3).getProperty()));
+    }
+
+    private BoundSql getBoundSql(String script, Object ids) {
+        SqlSource sqlSource = new XMLLanguageDriver().createSqlSource(new Configuration(), script, Map.class);
+        Map<String, Object> param = new HashMap<>();
+        param.put("ids", ids);
+        return sqlSource.getBoundSql(param);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.result.ColumnarResult;
+import org.apache.ibatis.executor.result.ColumnarResultHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+
+class ColumnarResultTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar_result/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                "org/apache/ibatis/submitted/columnar_result/CreateDB.sql");
+    }
+
+    @Test
+    void shouldFillColumns() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            ColumnarResult sales = sqlSession.getMapper(Mapper.class).getSales();
+            Assertions.assertEquals(4, sales.getRowCount());
+            Assertions.assertEquals(4, sales.getColumnCount());
+
+            int id = sales.getColumnIndex("id");
+            int region = sales.getColumnIndex("region");
+            int units = sales.getColumnIndex("units");
+            int amount = sales.getColumnIndex("amount");
+            Assertions.assertEquals(int.class, sales.getColumnType(id));
+            Assertions.assertEquals(Object.class, sales.getColumnType(region));
+            Assertions.assertEquals(long.class, sales.getColumnType(units));
+            Assertions.assertEquals(double.class, sales.getColumnType(amount));
+
+            Assertions.assertEquals(2, sales.getInt(1, id));
+            Assertions.assertEquals("south", sales.getObject(1, region));
+            Assertions.assertEquals(20L, sales.getLong(1, units));
+            Assertions.assertEquals(200.25d, sales.getDouble(1, amount));
+
+            Assertions.assertTrue(sales.isNull(2, units));
+            Assertions.assertNull(sales.getObject(2, units));
+            Assertions.assertTrue(sales.isNull(3, amount));
+            Assertions.assertEquals(2, sales.getNulls(units).nextSetBit(0));
+
+            long totalUnits = 0;
+            long[] unitValues = sales.getLongColumn(units);
+            for (int row = 0; row < sales.getRowCount(); row++) {
+                totalUnits += unitValues[row];
+            }
+            Assertions.assertEquals(35L, totalUnits);
+        }
+    }
+
+    @Test
+    void shouldApplyRowBounds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            ColumnarResult sales = sqlSession.getMapper(Mapper.class).getSalesWithRowBounds(new RowBounds(1, 2));
+            sales.trimToSize();
+            Assertions.assertArrayEquals(new int[]{2, 3}, sales.getIntColumn(sales.getColumnIndex("id")));
+        }
+    }
+
+    @Test
+    void shouldFillColumnsThroughResultHandler() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            ColumnarResultHandler resultHandler = new ColumnarResultHandler();
+            sqlSession.select("org.apache.ibatis.submitted.columnar_result.Mapper.getSales", resultHandler);
+            Assertions.assertEquals(4, resultHandler.getResult().getRowCount());
+        }
+    }
+
+    @Test
+    void shouldSelectColumnsThroughSqlSession() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            ColumnarResult sales = sqlSession.selectColumnar("org.apache.ibatis.submitted.columnar_result.Mapper.getSales");
+            Assertions.assertEquals(4, sales.getRowCount());
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+--
+--    Copyright 2009-2020 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table sales if exists;
+
+create table sales (
+  id int,
+  region varchar(20),
+  units bigint,
+  amount double
+);
+
+insert into sales values(1, 'north', 10, 100.5);
+insert into sales values(2, 'south', 20, 200.25);
+insert into sales values(3, 'north', null, 50);
+insert into sales values(4, 'east', 5, null);
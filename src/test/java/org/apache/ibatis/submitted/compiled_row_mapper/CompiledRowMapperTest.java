@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+class CompiledRowMapperTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapper/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                "org/apache/ibatis/submitted/compiled_row_mapper/CreateDB.sql");
+    }
+
+    @Test
+    void shouldMapExplicitAndAutomaticMappings() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<User> users = mapper.getUsers();
+
+            Assertions.assertEquals(3, users.size());
+            Assertions.assertEquals(1, users.get(0).getId());
+            Assertions.assertEquals("User1", users.get(0).getName());
+            Assertions.assertEquals(Integer.valueOf(21), users.get(0).getAge());
+            Assertions.assertEquals("Tokyo", users.get(0).getAddress().getCity());
+            Assertions.assertNull(users.get(1).getAge());
+            Assertions.assertNull(users.get(1).getAddress());
+        }
+    }
+
+    @Test
+    void shouldReuseRowMapperAcrossStatements() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Assertions.assertEquals("User1", mapper.getUser(1).getName());
+            Assertions.assertEquals("User3", mapper.getUser(3).getName());
+            Assertions.assertNull(mapper.getUser(4));
+        }
+    }
+
+    @Test
+    void shouldMapRowsToMaps() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<Map<String, Object>> users = mapper.getUsersAsMaps();
+
+            Assertions.assertEquals(3, users.size());
+            Assertions.assertEquals("Paris", users.get(2).get("CITY"));
+            Assertions.assertFalse(users.get(1).containsKey("AGE"));
+        }
+    }
+}
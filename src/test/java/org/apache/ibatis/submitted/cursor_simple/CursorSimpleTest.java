@@ -17,6 +17,10 @@ package org.apache.ibatis.submitted.cursor_simple;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.CursorSubscriber;
+import org.apache.ibatis.cursor.CursorSubscription;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
@@ -29,6 +33,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -468,4 +473,177 @@ class CursorSimpleTest {
             Assertions.assertTrue(cursor.isConsumed());
         }
     }
+
+    @Test
+    void shouldGetAllUsersInChunks() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Cursor<User> usersCursor = mapper.getAllUsers();
+            List<Integer> chunkSizes = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (List<User> chunk : usersCursor.chunks(2)) {
+                chunkSizes.add(chunk.size());
+                chunk.forEach(user -> names.add(user.getName()));
+            }
+
+            Assertions.assertEquals(Arrays.asList(2, 2, 1), chunkSizes);
+            Assertions.assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User5"), names);
+            Assertions.assertTrue(usersCursor.isConsumed());
+            Assertions.assertEquals(4, usersCursor.getCurrentIndex());
+            usersCursor.close();
+        }
+    }
+
+    @Test
+    void shouldPrefetchUsersFromTheResultSet() throws IOException {
+        sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Cursor<User> usersCursor = mapper.getAllUsers();
+            Assertions.assertTrue(usersCursor instanceof PrefetchingCursor);
+            Assertions.assertEquals(-1, usersCursor.getCurrentIndex());
+
+            List<String> names = new ArrayList<>();
+            for (User user : usersCursor) {
+                names.add(user.getName());
+                Assertions.assertEquals(names.size() - 1, usersCursor.getCurrentIndex());
+            }
+
+            Assertions.assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User5"), names);
+            Assertions.assertTrue(usersCursor.isConsumed());
+            Assertions.assertFalse(usersCursor.isOpen());
+            usersCursor.close();
+        } finally {
+            sqlSessionFactory.getConfiguration().setCursorPrefetchSize(null);
+        }
+    }
+
+    @Test
+    void shouldStopPrefetchingUsersWhenClosedEarly() throws IOException {
+        sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Cursor<User> usersCursor = mapper.getAllUsers();
+            Iterator<User> iterator = usersCursor.iterator();
+            Assertions.assertEquals("User1", iterator.next().getName());
+
+            usersCursor.close();
+            Assertions.assertFalse(usersCursor.isOpen());
+            Assertions.assertFalse(usersCursor.isConsumed());
+            Assertions.assertFalse(iterator.hasNext());
+        } finally {
+            sqlSessionFactory.getConfiguration().setCursorPrefetchSize(null);
+        }
+    }
+
+    @Test
+    void shouldPublishUsersOnDemand() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            CursorPublisher<User> publisher = mapper.publishAllUsers();
+            List<String> names = new ArrayList<>();
+            boolean[] completed = new boolean[1];
+            CursorSubscription[] subscription = new CursorSubscription[1];
+            publisher.subscribe(new CursorSubscriber<User>() {
+                @Override
+                public void onSubscribe(CursorSubscription s) {
+                    subscription[0] = s;
+                }
+
+                @Override
+                public void onNext(User item) {
+                    names.add(item.getName());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    Assertions.fail(throwable.getMessage());
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+
+            subscription[0].request(2);
+            Assertions.assertEquals(2, names.size());
+            Assertions.assertFalse(completed[0]);
+
+            subscription[0].request(2);
+            Assertions.assertEquals(4, names.size());
+
+            subscription[0].cancel();
+            subscription[0].request(10);
+            Assertions.assertEquals(4, names.size());
+            Assertions.assertFalse(completed[0]);
+            Assertions.assertEquals("User4", names.get(3));
+        }
+    }
+
+    @Test
+    void shouldCompletePublisherWhenAllUsersAreRequested() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<String> names = new ArrayList<>();
+            boolean[] completed = new boolean[1];
+            mapper.publishAllUsers().subscribe(new CursorSubscriber<User>() {
+                @Override
+                public void onSubscribe(CursorSubscription s) {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(User item) {
+                    names.add(item.getName());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    Assertions.fail(throwable.getMessage());
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+
+            Assertions.assertEquals(5, names.size());
+            Assertions.assertTrue(completed[0]);
+        }
+    }
+
+    @Test
+    void shouldPublishUsersWithTheStatementFetchSize() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<String> names = new ArrayList<>();
+            boolean[] completed = new boolean[1];
+            mapper.publishAllUsersInPairs().subscribe(new CursorSubscriber<User>() {
+                @Override
+                public void onSubscribe(CursorSubscription s) {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(User item) {
+                    names.add(item.getName());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    Assertions.fail(throwable.getMessage());
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+
+            Assertions.assertEquals(5, names.size());
+            Assertions.assertTrue(completed[0]);
+        }
+    }
 }
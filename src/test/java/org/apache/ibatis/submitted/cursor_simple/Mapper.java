@@ -18,6 +18,7 @@ package org.apache.ibatis.submitted.cursor_simple;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 import org.apache.ibatis.session.RowBounds;
 
 public interface Mapper {
@@ -38,4 +39,11 @@ public interface Mapper {
     @Select("select * from users")
     @Options(fetchSize = Integer.MIN_VALUE)
     Cursor<User> getUsersMysqlStream();
+
+    @Select("select * from users order by id")
+    CursorPublisher<User> publishAllUsers();
+
+    @Select("select * from users order by id")
+    @Options(fetchSize = 2)
+    CursorPublisher<User> publishAllUsersInPairs();
 }
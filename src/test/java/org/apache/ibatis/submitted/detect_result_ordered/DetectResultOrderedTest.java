@@ -0,0 +1,153 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.detect_result_ordered;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+class DetectResultOrderedTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+    private static ResultSetHandler resultSetHandler;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/detect_result_ordered/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+        sqlSessionFactory.getConfiguration().addInterceptor(new ResultSetHandlerRecorder());
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                "org/apache/ibatis/submitted/detect_result_ordered/CreateDB.sql");
+    }
+
+    @Test
+    void shouldStreamNestedCollectionsThroughCursor() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            try (Cursor<User> usersCursor = mapper.getUsersOrderedById()) {
+                Iterator<User> iterator = usersCursor.iterator();
+
+                User user = iterator.next();
+                Assertions.assertEquals(Integer.valueOf(1), user.getId());
+                Assertions.assertEquals(2, user.getGroups().size());
+                Assertions.assertEquals(2, user.getRoles().size());
+                assertReleased(user);
+
+                user = iterator.next();
+                Assertions.assertEquals(Integer.valueOf(2), user.getId());
+                Assertions.assertEquals(1, user.getGroups().size());
+                assertReleased(user);
+
+                user = iterator.next();
+                Assertions.assertEquals(Integer.valueOf(3), user.getId());
+                Assertions.assertEquals(3, user.getGroups().size());
+                Assertions.assertEquals(1, user.getRoles().size());
+                assertReleased(user);
+
+                Assertions.assertFalse(iterator.hasNext());
+                Assertions.assertTrue(pendingObjects().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void shouldAllowResultHandlerWhenOrderedById() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            List<User> users = new ArrayList<>();
+            sqlSession.select("org.apache.ibatis.submitted.detect_result_ordered.Mapper.getUsersOrderedById",
+                    context -> {
+                        // 前一个父对象在下一个父对象开始时就已释放
+                        users.forEach(DetectResultOrderedTest::assertReleased);
+                        users.add((User) context.getResultObject());
+                    });
+
+            Assertions.assertEquals(3, users.size());
+            Assertions.assertTrue(pendingObjects().isEmpty());
+            Assertions.assertEquals(2, users.get(0).getGroups().size());
+            Assertions.assertEquals(3, users.get(2).getGroups().size());
+        }
+    }
+
+    @Test
+    void shouldRejectResultHandlerWhenNotOrderedById() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Assertions.assertThrows(PersistenceException.class, () ->
+                    sqlSession.select("org.apache.ibatis.submitted.detect_result_ordered.Mapper.getUsersOrderedByName",
+                            context -> {
+                            }));
+        }
+    }
+
+    private static void assertReleased(User user) {
+        for (Object pending : pendingObjects()) {
+            Assertions.assertNotSame(user, pending);
+        }
+    }
+
+    private static Collection<?> pendingObjects() {
+        Field field;
+        try {
+            field = DefaultResultSetHandler.class.getDeclaredField("nestedResultObjects");
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            field.setAccessible(true);
+            return new ArrayList<>(((Map<?, ?>) field.get(resultSetHandler)).values());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            field.setAccessible(false);
+        }
+    }
+
+    @Intercepts({
+            @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}),
+            @Signature(type = ResultSetHandler.class, method = "handleCursorResultSets", args = {Statement.class})})
+    public static class ResultSetHandlerRecorder implements Interceptor {
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            resultSetHandler = (ResultSetHandler) invocation.getTarget();
+            return invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+--
+--    Copyright 2009-2020 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table users if exists;
+
+create table users (
+  id int,
+  name varchar(20),
+  age int
+);
+
+insert into users values(1, 'User1', 21);
+insert into users values(2, 'User2', null);
+insert into users values(3, 'User3', 23);
+insert into users values(4, 'User4', 24);
+insert into users values(5, 'User5', null);
+insert into users values(6, 'User6', 26);
+insert into users values(7, 'User7', 27);
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_result_mapping;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class ParallelResultMappingTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_result_mapping/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                "org/apache/ibatis/submitted/parallel_result_mapping/CreateDB.sql");
+    }
+
+    @Test
+    void shouldMapAllRowsInOrder() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<User> users = mapper.getUsers();
+
+            Assertions.assertEquals(7, users.size());
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                Assertions.assertEquals(Integer.valueOf(i + 1), user.getId());
+                Assertions.assertEquals("User" + (i + 1), user.getName());
+            }
+            Assertions.assertEquals(Integer.valueOf(21), users.get(0).getAge());
+            Assertions.assertNull(users.get(1).getAge());
+        }
+    }
+
+    @Test
+    void shouldApplyRowBounds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<User> users = mapper.getUsersWithRowBounds(new RowBounds(2, 3));
+
+            Assertions.assertEquals(3, users.size());
+            Assertions.assertEquals("User3", users.get(0).getName());
+            Assertions.assertEquals("User5", users.get(2).getName());
+        }
+    }
+
+    @Test
+    void shouldStopWhenResultHandlerStops() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<String> names = new ArrayList<>();
+            mapper.getUsersWithResultHandler(context -> {
+                names.add(context.getResultObject().getName());
+                if (context.getResultCount() == 3) {
+                    context.stop();
+                }
+            });
+
+            Assertions.assertEquals(3, names.size());
+            Assertions.assertEquals("User3", names.get(2));
+        }
+    }
+
+    @Test
+    void shouldMapRowsToMaps() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<Map<String, Object>> users = mapper.getUsersAsMaps();
+
+            Assertions.assertEquals(7, users.size());
+            Assertions.assertEquals("User7", users.get(6).get("NAME"));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_results;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.executor.result.IntList;
+import org.apache.ibatis.executor.result.LongList;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+
+public interface Mapper {
+
+    @Select("select id from items order by id")
+    IntList getIds();
+
+    @Select("select id from items order by id")
+    IntList getIdsWithRowBounds(RowBounds rowBounds);
+
+    @Select("select quantity from items where quantity is not null order by id")
+    LongList getQuantities();
+
+    @Select("select quantity from items order by id")
+    LongList getAllQuantities();
+
+    @Select("select * from items order by id")
+    List<Item> getItems();
+
+}
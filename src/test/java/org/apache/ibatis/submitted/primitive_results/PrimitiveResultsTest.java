@@ -0,0 +1,147 @@
+/*
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_results;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.result.IntList;
+import org.apache.ibatis.executor.result.LongList;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+class PrimitiveResultsTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/primitive_results/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                "org/apache/ibatis/submitted/primitive_results/CreateDB.sql");
+    }
+
+    @Test
+    void shouldReturnIntList() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            IntList ids = mapper.getIds();
+            Assertions.assertArrayEquals(new int[]{1, 2, 3}, ids.toIntArray());
+            Assertions.assertArrayEquals(new int[]{2}, mapper.getIdsWithRowBounds(new RowBounds(1, 1)).toIntArray());
+        }
+    }
+
+    @Test
+    void shouldReturnLongList() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            LongList quantities = sqlSession.getMapper(Mapper.class).getQuantities();
+            Assertions.assertEquals(2, quantities.size());
+            Assertions.assertEquals(10L, quantities.getLong(0));
+            Assertions.assertEquals(20000000000L, quantities.getLong(1));
+        }
+    }
+
+    @Test
+    void shouldRejectNullValues() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Assertions.assertThrows(PersistenceException.class, mapper::getAllQuantities);
+        }
+    }
+
+    @Test
+    void shouldSetPrimitiveProperties() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            List<Item> items = sqlSession.getMapper(Mapper.class).getItems();
+            Assertions.assertEquals(3, items.size());
+            Assertions.assertEquals(2, items.get(1).getId());
+            Assertions.assertEquals("Item2", items.get(1).getName());
+            Assertions.assertEquals(20000000000L, items.get(1).getQuantity());
+            Assertions.assertEquals(2.25d, items.get(1).getPrice());
+            // null columns leave the primitive properties untouched
+            Assertions.assertEquals(0L, items.get(2).getQuantity());
+            Assertions.assertEquals(0d, items.get(2).getPrice());
+        }
+    }
+
+    @Test
+    void shouldHonorOverriddenTypeHandlers() throws Exception {
+        SqlSessionFactory factory;
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/primitive_results/mybatis-config.xml")) {
+            factory = new SqlSessionFactoryBuilder().build(reader);
+        }
+        TypeHandlerRegistry registry = factory.getConfiguration().getTypeHandlerRegistry();
+        registry.register(Integer.class, new NegatingIntegerTypeHandler());
+        registry.register(int.class, new NegatingIntegerTypeHandler());
+        registry.register(Long.class, new NegatingLongTypeHandler());
+        registry.register(long.class, new NegatingLongTypeHandler());
+        try (SqlSession sqlSession = factory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Assertions.assertArrayEquals(new int[]{-1, -2, -3}, mapper.getIds().toIntArray());
+            Assertions.assertArrayEquals(new long[]{-10L, -20000000000L}, mapper.getQuantities().toLongArray());
+            List<Item> items = mapper.getItems();
+            Assertions.assertEquals(-2, items.get(1).getId());
+            Assertions.assertEquals(-20000000000L, items.get(1).getQuantity());
+        }
+    }
+
+    public static class NegatingIntegerTypeHandler extends IntegerTypeHandler {
+        @Override
+        public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+            Integer result = super.getNullableResult(rs, columnName);
+            return result == null ? null : -result;
+        }
+
+        @Override
+        public Integer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            Integer result = super.getNullableResult(rs, columnIndex);
+            return result == null ? null : -result;
+        }
+    }
+
+    public static class NegatingLongTypeHandler extends LongTypeHandler {
+        @Override
+        public Long getNullableResult(ResultSet rs, String columnName) throws SQLException {
+            Long result = super.getNullableResult(rs, columnName);
+            return result == null ? null : -result;
+        }
+
+        @Override
+        public Long getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            Long result = super.getNullableResult(rs, columnIndex);
+            return result == null ? null : -result;
+        }
+    }
+
+}
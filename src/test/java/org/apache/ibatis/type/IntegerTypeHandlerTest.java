@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -81,4 +82,13 @@ class IntegerTypeHandlerTest extends BaseTypeHandlerTest {
         assertNull(TYPE_HANDLER.getResult(cs, 1));
     }
 
+    @Test
+    void shouldReadPrimitivesOnlyThroughBuiltInHandlers() {
+        assertSame(TYPE_HANDLER, PrimitiveTypeHandler.of(TYPE_HANDLER));
+        assertNull(PrimitiveTypeHandler.of(new IntegerTypeHandler() {
+        }));
+        assertNull(PrimitiveTypeHandler.of(new StringTypeHandler()));
+        assertNull(PrimitiveTypeHandler.of(null));
+    }
+
 }